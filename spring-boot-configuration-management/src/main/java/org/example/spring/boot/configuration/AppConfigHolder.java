@@ -0,0 +1,30 @@
+package org.example.spring.boot.configuration;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The current AppConfig. It starts as the one bound at startup and is swapped whole by AppConfigReloader, so a reader
+ * sees either the old or the new settings, never a mix of both. Read it on every use rather than keeping a copy.
+ */
+@Component
+public class AppConfigHolder {
+
+  private final AtomicReference<AppConfig> current;
+
+  public AppConfigHolder(AppConfig appConfig) {
+    this.current = new AtomicReference<>(appConfig);
+  }
+
+  public AppConfig get() {
+    return current.get();
+  }
+
+  /**
+   * @return the AppConfig that was replaced.
+   */
+  AppConfig publish(AppConfig appConfig) {
+    return current.getAndSet(appConfig);
+  }
+}
@@ -0,0 +1,19 @@
+package org.example.spring.boot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Hot reload of AppConfig, bound from the app.config-reload prefix.
+ * @param file a .properties or .yaml file with app.config settings, watched for changes. Its settings take precedence
+ *             over the ones the application started with; without it, AppConfig is never reloaded.
+ * @param deleteRemovedUsers whether the accounts of users dropped from the list are deleted. Off by default: they are
+ *                           kept, and only new and changed users are written.
+ */
+@ConfigurationProperties("app.config-reload")
+public record AppConfigReloadConfig( //
+  Path file, //
+  @DefaultValue("false") boolean deleteRemovedUsers) {
+}
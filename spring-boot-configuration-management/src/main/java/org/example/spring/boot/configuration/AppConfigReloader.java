@@ -0,0 +1,174 @@
+package org.example.spring.boot.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Reloads AppConfig while the application runs, whenever app.config-reload.file changes.<br>
+ * The file is applied once at startup, before the users are provisioned, and once the application is ready a daemon
+ * thread watches the directory of the file. On a change, the file is read again and app.config is bound into a new
+ * AppConfig, with the file's settings over the ones the application started with (a users list in the file replaces
+ * the whole list). The new AppConfig is published through AppConfigHolder in one step, and the users that differ from
+ * the list last written are written by UserProvisioner; users dropped from the list are only deleted with
+ * app.config-reload.delete-removed-users.
+ * A file that fails to load or bind is logged and the current AppConfig is kept.
+ */
+@Component
+@ConditionalOnProperty("app.config-reload.file")
+class AppConfigReloader {
+
+  private static final Logger log = LoggerFactory.getLogger(AppConfigReloader.class);
+
+  /**
+   * Editors often write a file in several steps; changes closer together than this are handled as one.
+   */
+  private static final long SETTLE_MILLIS = 200;
+
+  private final Path file;
+  private final boolean deleteRemovedUsers;
+  private final ConfigurableEnvironment environment;
+  private final AppConfigHolder holder;
+  private final UserProvisioner provisioner;
+  private final ApplicationConversionService conversionService = new ApplicationConversionService();
+  private WatchService watchService;
+  /**
+   * The users list last written successfully, which the next reload is compared with. Only the thread running
+   * reload() uses it: first the one starting the application, then the watcher.
+   */
+  private List<UserAccount> writtenUsers;
+
+  AppConfigReloader(AppConfigReloadConfig config, ConfigurableEnvironment environment, AppConfigHolder holder,
+    UserProvisioner provisioner, SecurityConfig.GrantedAuthorityCnv grantedAuthorityConverter) {
+    this.file = config.file().toAbsolutePath().normalize();
+    this.deleteRemovedUsers = config.deleteRemovedUsers();
+    this.environment = environment;
+    this.holder = holder;
+    this.provisioner = provisioner;
+    this.writtenUsers = holder.get().users();
+    this.conversionService.addConverter(grantedAuthorityConverter);
+  }
+
+  /**
+   * Registers the watch before the first reload, so a change made from then on is not missed, but leaves the changes
+   * queued until startWatching().
+   */
+  @PostConstruct
+  void start() throws IOException {
+    watchService = FileSystems.getDefault().newWatchService();
+    file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY);
+    reload();
+  }
+
+  /**
+   * Handles changes only once the application is ready, after the initUsers runner: a reload must never write users
+   * while the startup provisioning still inserts them.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  void startWatching() {
+    Thread watcher = new Thread(this::watch, "app-config-reload");
+    watcher.setDaemon(true);
+    watcher.start();
+    log.info("Watching {} for app.config changes", file);
+  }
+
+  @PreDestroy
+  void stop() throws IOException {
+    watchService.close();
+  }
+
+  /**
+   * Binds app.config from the file and the environment, publishes it and provisions the users that changed since the
+   * list last written.
+   * @return false if the file could not be loaded or bound, leaving the current AppConfig in place. A failure to
+   * write the users is logged; the new AppConfig stays published, but the list last written stays the one compared
+   * with, so the next reload of the file writes them again.
+   */
+  boolean reload() {
+    AppConfig reloaded;
+    try {
+      reloaded = bind();
+    } catch (IOException | RuntimeException e) {
+      log.warn("Keeping the current app.config, {} could not be loaded: {}", file, e.getMessage());
+      return false;
+    }
+    holder.publish(reloaded);
+    log.info("Reloaded app.config from {}", file);
+    try {
+      provisioner.sync(writtenUsers, reloaded.users(), deleteRemovedUsers);
+      writtenUsers = reloaded.users();
+    } catch (RuntimeException e) {
+      log.error("Reloaded app.config from {}, but its users could not be written", file, e);
+    }
+    return true;
+  }
+
+  private AppConfig bind() throws IOException {
+    MutablePropertySources sources = new MutablePropertySources();
+    loader().load("app-config-reload", new FileSystemResource(file)).forEach(sources::addLast);
+    environment.getPropertySources().forEach(sources::addLast);
+    AppConfig bound = new Binder(ConfigurationPropertySources.from(sources), //
+      new PropertySourcesPlaceholdersResolver(sources), conversionService) //
+      .bind("app.config", AppConfig.class) //
+      .orElseThrow(() -> new IllegalStateException("no app.config settings"));
+    return bound.users() == null ? new AppConfig(bound.header(), bound.intro(), List.of()) : bound;
+  }
+
+  private PropertySourceLoader loader() {
+    String name = file.getFileName().toString();
+    return name.endsWith(".yaml") || name.endsWith(".yml") //
+      ? new YamlPropertySourceLoader() //
+      : new PropertiesPropertySourceLoader();
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean changed = key.pollEvents().stream() //
+          .anyMatch(event -> file.getFileName().equals(event.context()));
+        key.reset();
+        if (changed) {
+          Thread.sleep(SETTLE_MILLIS);
+          drain();
+          reload();
+        }
+      }
+    } catch (ClosedWatchServiceException | InterruptedException e) {
+      log.debug("Stopped watching {}", file);
+    }
+  }
+
+  private void drain() {
+    for (WatchKey key = watchService.poll(); key != null; key = watchService.poll()) {
+      key.pollEvents();
+      key.reset();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.spring.boot.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Resolves logins through a bounded, expiring Caffeine cache of UserDetails keyed by username, so an authenticated
+ * request (every HTTP Basic API call) no longer selects the UserAccount with its authorities and builds a new User,
+ * which with User.withDefaultPasswordEncoder() also means hashing the password with bcrypt again.
+ * <br>
+ * Each caller gets its own copy of the cached User: Spring Security erases the credentials of the principal after a
+ * successful authentication, which would otherwise blank the cached password. Unknown usernames are not cached.
+ * UserAccountCacheListener evicts users as their accounts are saved or deleted.
+ * <br>
+ * Published as the cache.* metrics of the user.details cache, plus user.details.cache.hit.ratio.
+ */
+class CachingUserDetailsService implements UserDetailsService {
+
+  static final String CACHE_NAME = "user.details";
+
+  private final UserRepository repository;
+  private final Cache<String, UserDetails> cache;
+
+  CachingUserDetailsService(UserRepository repository, UserCacheConfig config, MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.cache = Caffeine.newBuilder() //
+      .maximumSize(config.maximumSize()) //
+      .expireAfterWrite(config.ttl()) //
+      .recordStats() //
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder(CACHE_NAME + ".cache.hit.ratio", cache, c -> c.stats().hitRate()) //
+      .description("Share of logins resolved from the user cache") //
+      .register(meterRegistry);
+  }
+
+  @Override
+  public UserDetails loadUserByUsername(String username) {
+    UserDetails user = cache.get(username, this::load);
+    if (user == null) {
+      throw new UsernameNotFoundException("No user " + username);
+    }
+    return User.withUserDetails(user).build();
+  }
+
+  void evict(String username) {
+    if (username != null) {
+      cache.invalidate(username);
+    }
+  }
+
+  void evictAll() {
+    cache.invalidateAll();
+  }
+
+  private UserDetails load(String username) {
+    UserAccount account = repository.findByUsername(username);
+    return account == null ? null : account.asUser();
+  }
+}
@@ -0,0 +1,27 @@
+package org.example.spring.boot.configuration;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * The single row counting the changes to the list of videos. VideoService bumps it in the transaction of every create
+ * and delete, so every instance of the application sharing the database reads the same version.
+ */
+@Entity
+class CatalogVersion {
+
+  static final long ID = 1;
+
+  private @Id Long id = ID;
+  private long version;
+
+  CatalogVersion() {}
+
+  public Long getId() {
+    return id;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.spring.boot.configuration;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+interface CatalogVersionRepository extends Repository<CatalogVersion, Long> {
+
+  boolean existsById(Long id);
+
+  CatalogVersion save(CatalogVersion catalogVersion);
+
+  /**
+   * @return the current version, read by primary key.
+   */
+  @Query("select c.version from CatalogVersion c where c.id = " + CatalogVersion.ID)
+  long current();
+
+  /**
+   * Increments the version in one UPDATE; callers run it in the transaction that changes the videos, so the new
+   * version commits with the change and concurrent changes queue on the row lock.
+   */
+  @Modifying
+  @Query("update CatalogVersion c set c.version = c.version + 1 where c.id = " + CatalogVersion.ID)
+  void bump();
+}
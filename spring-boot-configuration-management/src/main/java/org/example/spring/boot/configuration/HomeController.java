@@ -1,5 +1,8 @@
 package org.example.spring.boot.configuration;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -7,34 +10,69 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
- * Declares a field of the AppConfig type to be initialized in the constructor call.
- * Populates the model’s "header" and "intro" attributes with appConfig.intro() and appConfig.header().
+ * Declares a field of the AppConfigHolder type to be initialized in the constructor call.
+ * Populates the model’s "header" and "intro" attributes with appConfig.intro() and appConfig.header(), reading the
+ *  current AppConfig on every request so that a reloaded app.config shows up without a restart.
  * Routes the string values we put into application.properties so that they render index.mustache
  */
 @Controller
 public class HomeController {
   private final VideoService videoService;
-  private final AppConfig appConfig;
+  private final AppConfigHolder appConfig;
 
-  public HomeController(VideoService videoService, AppConfig appConfig) {
+  public HomeController(VideoService videoService, AppConfigHolder appConfig) {
     this.videoService = videoService;
     this.appConfig = appConfig;
   }
 
+/**
+ * Answers a refresh of an unchanged page with 304 Not Modified, before any video is read or template rendered.
+ * The strong ETag combines the catalog version with a SHA-256 digest of what else the page shows: the user and their
+ *  authorities, the session (which owns the CSRF token in the forms), and the header and intro of the current AppConfig.
+ * Cache-Control private, no-cache lets only the browser keep the page, and only if it revalidates it every time.
+ */
 @GetMapping("/")
 public String index(Model model, //
-  Authentication authentication) {
+  Authentication authentication, //
+  WebRequest request, //
+  HttpServletResponse response) {
+  AppConfig config = appConfig.get();
+  response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+  if (request.checkNotModified(etag(authentication, request, config))) {
+    return null;
+  }
   model.addAttribute("videos", videoService.getVideos());
   model.addAttribute("authentication", authentication);
-  model.addAttribute("header", appConfig.header());
-  model.addAttribute("intro", appConfig.intro());
+  model.addAttribute("header", config.header());
+  model.addAttribute("intro", config.intro());
   return "index";
 }
 
+  private String etag(Authentication authentication, WebRequest request, AppConfig config) {
+    MessageDigest page;
+    try {
+      page = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+    }
+    for (String input : List.of(authentication.getName(), authentication.getAuthorities().toString(),
+      String.valueOf(request.getSessionId()), String.valueOf(config.header()), String.valueOf(config.intro()))) {
+      // A separator that cannot occur in the inputs, so that shifting text from one input to the next changes the hash
+      page.update(input.getBytes(StandardCharsets.UTF_8));
+      page.update((byte) 0);
+    }
+    return videoService.catalogVersion() + "-" + HexFormat.of().formatHex(page.digest());
+  }
+
   @PostMapping("/new-video")
   public String newVideo(@ModelAttribute NewVideo newVideo, //
     Authentication authentication) {
@@ -46,18 +84,20 @@ public String index(Model model, //
   public String universalSearch(@ModelAttribute Search search, //
     Model model, //
     Authentication authentication) {
+    AppConfig config = appConfig.get();
     List<VideoEntity> searchResults = videoService.search(search);
     model.addAttribute("search", search);
     model.addAttribute("videos", searchResults);
     model.addAttribute("authentication", authentication);
-    model.addAttribute("header", appConfig.header());
-    model.addAttribute("intro", appConfig.intro());
+    model.addAttribute("header", config.header());
+    model.addAttribute("intro", config.intro());
     return "index";
   }
 
   @PostMapping("/delete/videos/{videoId}")
-  public String deleteVideo(@PathVariable Long videoId) {
-    videoService.delete(videoId);
+  public String deleteVideo(@PathVariable Long videoId, //
+    Authentication authentication) {
+    videoService.delete(videoId, authentication.getName());
     return "redirect:/";
   }
 }
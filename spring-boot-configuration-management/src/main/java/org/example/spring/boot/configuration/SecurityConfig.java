@@ -1,16 +1,18 @@
 package org.example.spring.boot.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.SecurityFilterChain;
 
 /**
@@ -31,14 +33,32 @@ public class SecurityConfig {
     return SimpleGrantedAuthority::new;
   }
 
+  /**
+   * Inserts the app.config.users that have no account yet, a chunk per transaction (app.user-provisioning). The users
+   * come from AppConfigHolder, so a list from app.config-reload.file wins over the one the application started with.
+   */
   @Bean
-  CommandLineRunner initUsers(UserManagementRepository repository, AppConfig appConfig) {
-    return args -> repository.saveAll(appConfig.users());
+  CommandLineRunner initUsers(UserProvisioner provisioner, AppConfigHolder appConfigHolder) {
+    return args -> provisioner.provision(appConfigHolder.get().users());
   }
 
+  /**
+   * Resolves logins from a cache of UserDetails (app.user-cache) instead of querying UserRepository every time.
+   */
   @Bean
-  UserDetailsService userService(UserRepository repo) {
-    return username -> repo.findByUsername(username).asUser();
+  CachingUserDetailsService userService(UserRepository repo, UserCacheConfig userCacheConfig,
+    MeterRegistry meterRegistry) {
+    return new CachingUserDetailsService(repo, userCacheConfig, meterRegistry);
+  }
+
+  /**
+   * The DaoAuthenticationProvider Spring Security would build around userService, timed as user.authentications.
+   */
+  @Bean
+  AuthenticationProvider authenticationProvider(CachingUserDetailsService userService, MeterRegistry meterRegistry) {
+    DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+    provider.setUserDetailsService(userService);
+    return new TimedAuthenticationProvider(provider, meterRegistry);
   }
 
   @Bean
@@ -48,6 +68,7 @@ public class SecurityConfig {
       .requestMatchers("/", "/search").authenticated() //
       .requestMatchers(HttpMethod.GET, "/api/**").authenticated() //
       .requestMatchers(HttpMethod.POST, "/delete/**", "/new-video").authenticated() //
+      .requestMatchers(HttpMethod.GET, "/actuator/**").hasRole("ADMIN") //
       .anyRequest().denyAll() //
       .and() //
       .formLogin() //
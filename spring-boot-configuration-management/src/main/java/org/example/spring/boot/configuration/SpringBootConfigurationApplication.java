@@ -10,7 +10,8 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
  *  bound to the values applied inside application.properties to the entry point for our application
  */
 @SpringBootApplication
-@EnableConfigurationProperties(AppConfig.class)
+@EnableConfigurationProperties({AppConfig.class, UserCacheConfig.class, AppConfigReloadConfig.class,
+  UserProvisioningConfig.class})
 public class SpringBootConfigurationApplication {
   public static void main(String[] args) {
     SpringApplication.run(SpringBootConfigurationApplication.class, args);
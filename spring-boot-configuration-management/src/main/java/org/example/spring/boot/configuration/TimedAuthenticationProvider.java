@@ -0,0 +1,51 @@
+package org.example.spring.boot.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every username and password authentication of the wrapped provider (user lookup and password check) as the
+ * user.authentications timer, tagged with result=success or failure.
+ */
+class TimedAuthenticationProvider implements AuthenticationProvider {
+
+  private final AuthenticationProvider delegate;
+  private final Timer successes;
+  private final Timer failures;
+
+  TimedAuthenticationProvider(AuthenticationProvider delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.successes = timer(meterRegistry, "success");
+    this.failures = timer(meterRegistry, "failure");
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+    long start = System.nanoTime();
+    try {
+      Authentication result = delegate.authenticate(authentication);
+      successes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return result;
+    } catch (AuthenticationException e) {
+      failures.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String result) {
+    return Timer.builder("user.authentications") //
+      .description("Time to authenticate a username and password") //
+      .tag("result", result) //
+      .register(meterRegistry);
+  }
+}
@@ -1,10 +1,13 @@
 package org.example.spring.boot.configuration;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -16,16 +19,24 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(UserAccountCacheListener.class)
 public class UserAccount {
 
   @Id
   @GeneratedValue //
   private Long id;
+  @Column(unique = true) //
   private String username;
   private String password;
   @ElementCollection(fetch = FetchType.EAGER) //
   private List<GrantedAuthority> authorities = //
     new ArrayList<>();
+  /**
+   * Bumped by Hibernate on every change, including one to the authorities alone: without it such a change only writes
+   *  the collection table, and no @PostUpdate reaches UserAccountCacheListener.
+   */
+  @Version //
+  private Long version;
 
   protected UserAccount() {}
 
@@ -54,6 +65,10 @@ public class UserAccount {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public String getUsername() {
     return username;
   }
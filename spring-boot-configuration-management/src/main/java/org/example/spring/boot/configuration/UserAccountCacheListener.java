@@ -0,0 +1,56 @@
+package org.example.spring.boot.configuration;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps the CachingUserDetailsService in step with every write of a UserAccount, whichever
+ * repository (UserManagementRepository.save(), saveAll(), delete()) makes it. Hibernate gets it from the Spring
+ * context while the EntityManagerFactory is still being built, so the user service (which needs a repository, and so
+ * that factory) is only looked up on the first write.
+ * <br>
+ * The user is evicted when the change is flushed and again once the transaction completes, so a login racing with
+ * the transaction cannot put the old account back for the rest of the TTL. An update evicts everyone, since the
+ * username itself may be what changed. A change to the authorities alone is an update too: UserAccount is versioned,
+ * so Hibernate bumps its row whenever the collection changes.
+ */
+class UserAccountCacheListener {
+
+  private final ObjectProvider<CachingUserDetailsService> userServiceProvider;
+
+  UserAccountCacheListener(ObjectProvider<CachingUserDetailsService> userServiceProvider) {
+    this.userServiceProvider = userServiceProvider;
+  }
+
+  @PostPersist
+  @PostRemove
+  void evict(UserAccount account) {
+    CachingUserDetailsService userService = userServiceProvider.getObject();
+    String username = account.getUsername();
+    userService.evict(username);
+    afterCompletion(() -> userService.evict(username));
+  }
+
+  @PostUpdate
+  void evictAll(UserAccount account) {
+    CachingUserDetailsService userService = userServiceProvider.getObject();
+    userService.evictAll();
+    afterCompletion(userService::evictAll);
+  }
+
+  private static void afterCompletion(Runnable eviction) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+        @Override
+        public void afterCompletion(int status) {
+          eviction.run();
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package org.example.spring.boot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the cache of resolved UserDetails in front of UserRepository, bound from the app.user-cache prefix.
+ * @param maximumSize how many users are kept; the least recently used are evicted beyond it.
+ * @param ttl how long a user is kept after being loaded, which bounds how stale it can get when the database is changed
+ *            behind the application's back.
+ */
+@ConfigurationProperties("app.user-cache")
+public record UserCacheConfig( //
+  @DefaultValue("10000") long maximumSize, //
+  @DefaultValue("5m") Duration ttl) {
+
+  public UserCacheConfig {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("app.user-cache.maximum-size must not be negative, was " + maximumSize);
+    }
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("app.user-cache.ttl must be positive, was " + ttl);
+    }
+  }
+}
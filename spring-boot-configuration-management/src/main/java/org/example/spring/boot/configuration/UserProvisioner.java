@@ -0,0 +1,134 @@
+package org.example.spring.boot.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Writes the app.config.users list into the user_account table.
+ * Inserts rely on the JDBC batching set up in application.properties (hibernate.jdbc.batch_size, order_inserts): the
+ *  pooled user_account_seq hands out ids without a round trip per account, so each chunk flushes as a few batched
+ *  inserts into user_account and user_account_authorities.
+ */
+@Component
+class UserProvisioner {
+
+  private static final Logger log = LoggerFactory.getLogger(UserProvisioner.class);
+
+  private final UserManagementRepository repository;
+  private final UserRepository userRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final UserProvisioningConfig provisioningConfig;
+
+  UserProvisioner(UserManagementRepository repository, UserRepository userRepository,
+    PlatformTransactionManager transactionManager, UserProvisioningConfig provisioningConfig) {
+    this.repository = repository;
+    this.userRepository = userRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.provisioningConfig = provisioningConfig;
+  }
+
+  /**
+   * Inserts the users that have no account yet, leaving existing accounts as they are. Each chunk of
+   * app.user-provisioning.chunk-size users is looked up with one query and inserted in its own transaction, so the
+   * persistence context never holds more than a chunk. A username listed twice is inserted once, from its first entry.
+   */
+  public void provision(List<UserAccount> users) {
+    if (users == null) {
+      return;
+    }
+    Set<String> seen = new HashSet<>();
+    int inserted = 0;
+    int chunkSize = provisioningConfig.chunkSize();
+    for (int from = 0; from < users.size(); from += chunkSize) {
+      Map<String, UserAccount> chunk = new LinkedHashMap<>();
+      for (UserAccount user : users.subList(from, Math.min(from + chunkSize, users.size()))) {
+        if (seen.add(user.getUsername())) {
+          chunk.put(user.getUsername(), user);
+        }
+      }
+      inserted += transactionTemplate.execute(status -> insertMissing(chunk));
+    }
+    log.info("Provisioned users: {} inserted, {} already present", inserted, seen.size() - inserted);
+  }
+
+  private int insertMissing(Map<String, UserAccount> chunk) {
+    userRepository.findExistingUsernames(chunk.keySet()).forEach(chunk::remove);
+    List<UserAccount> accounts = new ArrayList<>(chunk.size());
+    for (UserAccount user : chunk.values()) {
+      UserAccount account = new UserAccount();
+      account.setUsername(user.getUsername());
+      account.setPassword(user.getPassword());
+      account.setAuthorities(new ArrayList<>(user.getAuthorities()));
+      accounts.add(account);
+    }
+    repository.saveAll(accounts);
+    return accounts.size();
+  }
+
+  /**
+   * Applies the difference between two versions of the users list: accounts that are new or whose password or
+   * authorities changed are saved, and unchanged ones are not touched. Accounts no longer listed are deleted only when
+   * deleteRemoved is set, and kept otherwise.
+   */
+  @Transactional
+  public void sync(List<UserAccount> previous, List<UserAccount> current, boolean deleteRemoved) {
+    Map<String, UserAccount> before = byUsername(previous);
+    int written = 0;
+    for (UserAccount user : current) {
+      if (sameAccount(before.remove(user.getUsername()), user)) {
+        continue;
+      }
+      UserAccount account = userRepository.findByUsername(user.getUsername());
+      if (account == null) {
+        account = new UserAccount();
+        account.setUsername(user.getUsername());
+      }
+      account.setPassword(user.getPassword());
+      account.setAuthorities(new ArrayList<>(user.getAuthorities()));
+      repository.save(account);
+      written++;
+    }
+    int deleted = 0;
+    if (deleteRemoved) {
+      for (String removed : before.keySet()) {
+        UserAccount account = userRepository.findByUsername(removed);
+        if (account != null) {
+          repository.delete(account);
+          deleted++;
+        }
+      }
+    }
+    log.info("Synchronized users: {} saved, {} unchanged, {} no longer listed ({} deleted)", written,
+      current.size() - written, before.size(), deleted);
+  }
+
+  private static Map<String, UserAccount> byUsername(List<UserAccount> users) {
+    Map<String, UserAccount> byUsername = new HashMap<>();
+    if (users != null) {
+      users.forEach(user -> byUsername.put(user.getUsername(), user));
+    }
+    return byUsername;
+  }
+
+  /**
+   * Compares the authorities by content: once saved, a list is a Hibernate PersistentBag, which only equals itself.
+   */
+  private static boolean sameAccount(UserAccount left, UserAccount right) {
+    return left != null //
+      && Objects.equals(left.getPassword(), right.getPassword()) //
+      && new ArrayList<>(left.getAuthorities()).equals(new ArrayList<>(right.getAuthorities()));
+  }
+}
@@ -0,0 +1,20 @@
+package org.example.spring.boot.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How the app.config.users list is inserted at startup, bound from the app.user-provisioning prefix.
+ * @param chunkSize how many users are checked and inserted per transaction. Keep it a multiple of
+ *                  spring.jpa.properties.hibernate.jdbc.batch_size so every JDBC batch is full.
+ */
+@ConfigurationProperties("app.user-provisioning")
+public record UserProvisioningConfig( //
+  @DefaultValue("500") int chunkSize) {
+
+  public UserProvisioningConfig {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("app.user-provisioning.chunk-size must be positive, was " + chunkSize);
+    }
+  }
+}
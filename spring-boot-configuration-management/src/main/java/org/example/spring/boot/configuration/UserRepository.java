@@ -1,7 +1,18 @@
 package org.example.spring.boot.configuration;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends Repository<UserAccount, Long> {
 	UserAccount findByUsername(String username);
+
+	/**
+	 * @return which of the usernames already have an account, in one query and without loading the accounts.
+	 */
+	@Query("select u.username from UserAccount u where u.username in :usernames")
+	List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
 }
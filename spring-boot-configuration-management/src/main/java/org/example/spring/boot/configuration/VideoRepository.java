@@ -1,7 +1,11 @@
 package org.example.spring.boot.configuration;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -16,4 +20,15 @@ public interface VideoRepository extends JpaRepository<VideoEntity, Long> {
   @PreAuthorize("#entity.username == authentication.name")
   @Override
   void delete(VideoEntity entity);
+
+  /**
+   * Deletes the video only if it belongs to the user, in one DELETE statement, without loading it first.
+   * Guarded like delete(VideoEntity): a user may only delete as themselves.
+   * @return the number of videos deleted, 0 if there is no such video or it belongs to someone else.
+   */
+  @PreAuthorize("#username == authentication.name")
+  @Transactional
+  @Modifying
+  @Query("delete from VideoEntity v where v.id = :id and v.username = :username")
+  int deleteByIdAndUsername(@Param("id") Long id, @Param("username") String username);
 }
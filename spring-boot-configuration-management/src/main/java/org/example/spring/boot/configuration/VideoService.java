@@ -4,7 +4,9 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
@@ -13,17 +15,31 @@ import java.util.List;
 public class VideoService {
 
   private final VideoRepository repository;
+  private final CatalogVersionRepository catalogVersions;
 
-  public VideoService(VideoRepository repository) {
+  public VideoService(VideoRepository repository, CatalogVersionRepository catalogVersions) {
     this.repository = repository;
+    this.catalogVersions = catalogVersions;
+  }
+
+  /**
+   * @return the version of the video list, from the CatalogVersion row that create() and delete() bump as they
+   * commit. It is read by primary key, so every instance of the application agrees on it for the price of a
+   * single-row lookup.
+   */
+  public long catalogVersion() {
+    return catalogVersions.current();
   }
 
   public List<VideoEntity> getVideos() {
     return repository.findAll();
   }
 
+  @Transactional
   public VideoEntity create(NewVideo newVideo, String username) {
-    return repository.saveAndFlush(new VideoEntity(username, newVideo.name(), newVideo.description()));
+    VideoEntity video = repository.saveAndFlush(new VideoEntity(username, newVideo.name(), newVideo.description()));
+    catalogVersions.bump();
+    return video;
   }
 
   public List<VideoEntity> search(Search search) {
@@ -39,17 +55,29 @@ public class VideoService {
     return repository.findAll(example);
   }
 
-  public void delete(Long videoId) {
-    repository.findById(videoId) //
-      .map(videoEntity -> {
-        repository.delete(videoEntity);
-        return true;
-      }) //
-      .orElseThrow(() -> new RuntimeException("No video at " + videoId));
+  /**
+   * Deletes the video in a single owner-checked DELETE. Only when nothing was deleted does a second query tell a missing
+   * video from one that belongs to someone else.
+   * @throws AccessDeniedException if the video belongs to another user, as the guarded repository.delete() would.
+   * @throws RuntimeException if there is no such video.
+   */
+  @Transactional
+  public void delete(Long videoId, String username) {
+    if (repository.deleteByIdAndUsername(videoId, username) > 0) {
+      catalogVersions.bump();
+      return;
+    }
+    if (repository.existsById(videoId)) {
+      throw new AccessDeniedException("Video " + videoId + " does not belong to " + username);
+    }
+    throw new RuntimeException("No video at " + videoId);
   }
 
   @PostConstruct
   void initDatabase() {
+    if (!catalogVersions.existsById(CatalogVersion.ID)) {
+      catalogVersions.save(new CatalogVersion());
+    }
     repository.save(new VideoEntity("alice", "Need HELP with your SPRING BOOT 3 App?",
       "SPRING BOOT 3 will only speed things up and make it super SIMPLE to serve templates and raw data."));
     repository.save(new VideoEntity("alice", "Don't do THIS to your own CODE!",
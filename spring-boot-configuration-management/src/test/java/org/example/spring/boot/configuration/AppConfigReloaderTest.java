@@ -0,0 +1,121 @@
+package org.example.spring.boot.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class AppConfigReloaderTest {
+
+  @TempDir
+  Path dir;
+
+  UserProvisioner provisioner = mock(UserProvisioner.class);
+  StandardEnvironment environment = new StandardEnvironment();
+  AppConfigHolder holder;
+  List<UserAccount> startupUsers = List.of(new UserAccount("alice", "password", "ROLE_USER"));
+
+  // The settings the application started with, as application.properties would give them
+  @BeforeEach
+  void setUp() {
+    environment.getPropertySources().addFirst(new MapPropertySource("application", Map.of( //
+      "app.config.header", "Started", //
+      "app.config.intro", "From the environment", //
+      "app.config.users[0].username", "alice", //
+      "app.config.users[0].password", "password", //
+      "app.config.users[0].authorities[0]", "ROLE_USER")));
+    holder = new AppConfigHolder(new AppConfig("Started", "From the environment", startupUsers));
+  }
+
+  @Test
+  void propertiesFileShouldOverrideTheEnvironment() throws IOException {
+    AppConfigReloader reloader = reloader("app-config.properties", "app.config.header=Reloaded");
+
+    assertThat(reloader.reload()).isTrue();
+
+    AppConfig reloaded = holder.get();
+    assertThat(reloaded.header()).isEqualTo("Reloaded");
+    assertThat(reloaded.intro()).isEqualTo("From the environment");
+    assertThat(reloaded.users()).extracting(UserAccount::getUsername).containsExactly("alice");
+  }
+
+  // A users list in the file is not merged index by index with the environment's: it replaces it
+  @Test
+  void yamlUsersShouldReplaceTheWholeList() throws IOException {
+    AppConfigReloader reloader = reloader("app-config.yaml", """
+      app:
+        config:
+          intro: From the file
+          users:
+            - username: carol
+              password: secret
+              authorities: [ROLE_USER, ROLE_ADMIN]
+      """);
+
+    assertThat(reloader.reload()).isTrue();
+
+    AppConfig reloaded = holder.get();
+    assertThat(reloaded.header()).isEqualTo("Started");
+    assertThat(reloaded.intro()).isEqualTo("From the file");
+    assertThat(reloaded.users()).singleElement().satisfies(carol -> {
+      assertThat(carol.getUsername()).isEqualTo("carol");
+      assertThat(carol.getPassword()).isEqualTo("secret");
+      assertThat(carol.getAuthorities()).extracting(GrantedAuthority::getAuthority) //
+        .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    });
+    then(provisioner).should().sync(startupUsers, reloaded.users(), false);
+  }
+
+  @Test
+  void badFileShouldKeepTheCurrentConfig() throws IOException {
+    AppConfig current = holder.get();
+    AppConfigReloader reloader = reloader("app-config.yaml", "app: [config");
+
+    assertThat(reloader.reload()).isFalse();
+    Files.delete(dir.resolve("app-config.yaml"));
+    assertThat(reloader.reload()).isFalse();
+
+    assertThat(holder.get()).isSameAs(current);
+    then(provisioner).shouldHaveNoInteractions();
+  }
+
+  // Users that could not be written are compared with the list last written, so the next reload writes them again
+  @Test
+  void failedSyncShouldBeRetriedOnTheNextReload() throws IOException {
+    AppConfigReloader reloader = reloader("app-config.properties", """
+      app.config.users[0].username=alice
+      app.config.users[0].password=changed
+      """);
+    willThrow(new DataAccessResourceFailureException("database down")) //
+      .willDoNothing() //
+      .given(provisioner).sync(any(), any(), anyBoolean());
+
+    assertThat(reloader.reload()).isTrue();
+    assertThat(holder.get().users()).extracting(UserAccount::getPassword).containsExactly("changed");
+    assertThat(reloader.reload()).isTrue();
+    assertThat(reloader.reload()).isTrue();
+
+    List<UserAccount> reloaded = holder.get().users();
+    then(provisioner).should(times(2)).sync(startupUsers, reloaded, false);
+    then(provisioner).should().sync(reloaded, reloaded, false);
+  }
+
+  private AppConfigReloader reloader(String fileName, String content) throws IOException {
+    Path file = Files.writeString(dir.resolve(fileName), content);
+    return new AppConfigReloader(new AppConfigReloadConfig(file, false), environment, holder, provisioner,
+      SimpleGrantedAuthority::new);
+  }
+}
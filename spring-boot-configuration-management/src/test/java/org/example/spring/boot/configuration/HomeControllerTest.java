@@ -0,0 +1,75 @@
+package org.example.spring.boot.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET / answers a refresh of an unchanged page with 304 Not Modified, and a changed catalog with the page again.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "alice", roles = "USER")
+class HomeControllerTest {
+
+  @Autowired
+  MockMvc mvc;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  MockHttpSession session = new MockHttpSession();
+
+  @Test
+  void unchangedPageShouldNotBeSentAgain() throws Exception {
+    String etag = etag();
+
+    mvc.perform(get("/").session(session).header(HttpHeaders.IF_NONE_MATCH, etag)) //
+      .andExpect(status().isNotModified());
+  }
+
+  // Another instance sharing the database changed the videos: only the version row tells this one
+  @Test
+  void changeByAnotherInstanceShouldSendThePageAgain() throws Exception {
+    String etag = etag();
+
+    jdbcTemplate.update("update catalog_version set version = version + 1");
+
+    mvc.perform(get("/").session(session).header(HttpHeaders.IF_NONE_MATCH, etag)) //
+      .andExpect(status().isOk());
+    assertThat(etag()).isNotEqualTo(etag);
+  }
+
+  @Test
+  void createAndDeleteShouldChangeTheTag() throws Exception {
+    String before = etag();
+
+    mvc.perform(post("/new-video").session(session).param("name", "Tagged").param("description", "new").with(csrf())) //
+      .andExpect(status().is3xxRedirection());
+    String created = etag();
+    Long id = jdbcTemplate.queryForObject("select id from video_entity where name = 'Tagged'", Long.class);
+    mvc.perform(post("/delete/videos/" + id).session(session).with(csrf())) //
+      .andExpect(status().is3xxRedirection());
+
+    assertThat(created).isNotEqualTo(before);
+    assertThat(etag()).isNotIn(before, created);
+  }
+
+  private String etag() throws Exception {
+    return mvc.perform(get("/").session(session)) //
+      .andExpect(status().isOk()) //
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+  }
+}
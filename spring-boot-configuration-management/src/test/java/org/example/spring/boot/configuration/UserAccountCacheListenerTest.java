@@ -0,0 +1,51 @@
+package org.example.spring.boot.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Saves through UserManagementRepository evict the cached UserDetails, including saves that only change authorities.
+ */
+@SpringBootTest
+class UserAccountCacheListenerTest {
+
+  @Autowired
+  CachingUserDetailsService userService;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  UserManagementRepository repository;
+
+  @Test
+  void grantedAndRevokedAuthoritiesShouldApplyAtOnce() {
+    assertThat(authorities("bob")).containsExactly("ROLE_USER");
+
+    UserAccount bob = userRepository.findByUsername("bob");
+    List<GrantedAuthority> granted = new ArrayList<>(bob.getAuthorities());
+    granted.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    bob.setAuthorities(granted);
+    repository.save(bob);
+    assertThat(authorities("bob")).containsExactly("ROLE_ADMIN", "ROLE_USER");
+
+    bob = userRepository.findByUsername("bob");
+    bob.getAuthorities().removeIf(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+    repository.save(bob);
+    assertThat(authorities("bob")).containsExactly("ROLE_USER");
+  }
+
+  private List<String> authorities(String username) {
+    return userService.loadUserByUsername(username).getAuthorities().stream() //
+      .map(GrantedAuthority::getAuthority) //
+      .toList();
+  }
+}
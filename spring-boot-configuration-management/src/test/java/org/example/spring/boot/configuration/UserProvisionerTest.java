@@ -0,0 +1,154 @@
+package org.example.spring.boot.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProvisionerTest {
+
+  @Mock
+  UserManagementRepository repository;
+
+  @Mock
+  UserRepository userRepository;
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  UserProvisioner provisioner;
+
+  List<UserAccount> previous = List.of( //
+    new UserAccount("alice", "password", "ROLE_USER"), //
+    new UserAccount("bob", "password", "ROLE_USER"), //
+    new UserAccount("carol", "password", "ROLE_USER"), //
+    new UserAccount("admin", "password", "ROLE_ADMIN"));
+
+  @BeforeEach
+  void setUp() {
+    provisioner = new UserProvisioner(repository, userRepository, transactionManager, new UserProvisioningConfig(500));
+  }
+
+  // The authorities are compared by content, whatever list implementation holds them
+  @Test
+  void unchangedUsersShouldNotBeWritten() {
+    List<UserAccount> current = previous.stream().map(UserProvisionerTest::persisted).toList();
+
+    provisioner.sync(previous, current, true);
+
+    then(userRepository).shouldHaveNoInteractions();
+    then(repository).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void changedPasswordsShouldBeSaved() {
+    UserAccount stored = persisted(previous.get(1));
+    given(userRepository.findByUsername("bob")).willReturn(stored);
+
+    provisioner.sync(previous, List.of(previous.get(0), new UserAccount("bob", "changed", "ROLE_USER"),
+      previous.get(2), previous.get(3)), false);
+
+    then(repository).should().save(stored);
+    then(repository).shouldHaveNoMoreInteractions();
+    assertThat(stored.getPassword()).isEqualTo("changed");
+  }
+
+  @Test
+  void changedAuthoritiesShouldBeSaved() {
+    UserAccount stored = persisted(previous.get(2));
+    given(userRepository.findByUsername("carol")).willReturn(stored);
+
+    provisioner.sync(previous, List.of(previous.get(0), previous.get(1),
+      new UserAccount("carol", "password", "ROLE_USER", "ROLE_ADMIN"), previous.get(3)), false);
+
+    then(repository).should().save(stored);
+    then(repository).shouldHaveNoMoreInteractions();
+    assertThat(stored.getAuthorities()).extracting(GrantedAuthority::getAuthority) //
+      .containsExactly("ROLE_USER", "ROLE_ADMIN");
+  }
+
+  @Test
+  void newUsersShouldBeInserted() {
+    provisioner.sync(previous.subList(0, 3), previous, false);
+
+    ArgumentCaptor<UserAccount> saved = ArgumentCaptor.forClass(UserAccount.class);
+    then(repository).should().save(saved.capture());
+    assertThat(saved.getValue().getId()).isNull();
+    assertThat(saved.getValue().getUsername()).isEqualTo("admin");
+  }
+
+  // Dropping a user from the list is not enough to lose the account: deleting is opt-in
+  @Test
+  void removedUsersShouldBeKeptByDefault() {
+    provisioner.sync(previous, previous.subList(0, 3), false);
+
+    then(userRepository).shouldHaveNoInteractions();
+    then(repository).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void removedUsersShouldBeDeletedWhenAskedTo() {
+    UserAccount stored = persisted(previous.get(3));
+    given(userRepository.findByUsername("admin")).willReturn(stored);
+
+    provisioner.sync(previous, previous.subList(0, 3), true);
+
+    then(repository).should().delete(stored);
+    then(repository).shouldHaveNoMoreInteractions();
+  }
+
+  // Chunks of two: each is looked up in one query and saved in one call, without the accounts that already exist and
+  // without a username seen in an earlier chunk
+  @Test
+  void provisionShouldInsertMissingUsersChunkByChunk() {
+    List<List<String>> lookups = new ArrayList<>();
+    List<List<UserAccount>> saved = new ArrayList<>();
+    given(userRepository.findExistingUsernames(anyCollection())).willAnswer(invocation -> {
+      Collection<String> usernames = invocation.getArgument(0);
+      lookups.add(List.copyOf(usernames));
+      return usernames.stream().filter("bob"::equals).toList();
+    });
+    given(repository.saveAll(anyList())).willAnswer(invocation -> {
+      saved.add(List.copyOf(invocation.<List<UserAccount>>getArgument(0)));
+      return invocation.getArgument(0);
+    });
+
+    provisioner = new UserProvisioner(repository, userRepository, transactionManager, new UserProvisioningConfig(2));
+    provisioner.provision(List.of( //
+      previous.get(0), //
+      previous.get(1), //
+      new UserAccount("alice", "listed twice", "ROLE_ADMIN"), //
+      previous.get(2), //
+      previous.get(3)));
+
+    assertThat(lookups).containsExactly(List.of("alice", "bob"), List.of("carol"), List.of("admin"));
+    assertThat(saved).extracting(chunk -> chunk.stream().map(UserAccount::getUsername).toList()) //
+      .containsExactly(List.of("alice"), List.of("carol"), List.of("admin"));
+    UserAccount alice = saved.get(0).get(0);
+    assertThat(alice.getId()).isNull();
+    assertThat(alice.getPassword()).isEqualTo("password");
+    assertThat(alice.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    then(transactionManager).should(times(3)).commit(any());
+  }
+
+  private static UserAccount persisted(UserAccount user) {
+    UserAccount account = new UserAccount();
+    account.setId((long) user.getUsername().hashCode());
+    account.setUsername(user.getUsername());
+    account.setPassword(user.getPassword());
+    account.setAuthorities(new ArrayList<>(user.getAuthorities()));
+    return account;
+  }
+}
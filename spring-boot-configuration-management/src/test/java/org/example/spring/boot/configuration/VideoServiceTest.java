@@ -0,0 +1,78 @@
+package org.example.spring.boot.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * VideoService.delete(videoId, username) behind POST /delete/videos/{videoId}, signed in as alice.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser(username = "alice", roles = "USER")
+class VideoServiceTest {
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  MockMvc mvc;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  // The owner check is part of the DELETE: the video is not selected first, the only other statement bumps the catalog
+  @Test
+  void ownVideoShouldBeDeletedWithOneStatement() throws Exception {
+    Long id = videoService.create(new NewVideo("Deleted by alice", "own video"), "alice").getId();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long statements = statistics.getPrepareStatementCount();
+    long loads = statistics.getEntityLoadCount();
+
+    mvc.perform(post("/delete/videos/" + id).with(csrf())) //
+      .andExpect(status().isFound());
+
+    assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isEqualTo(loads);
+    assertThat(countVideos(id)).isZero();
+  }
+
+  @Test
+  void anotherUsersVideoShouldBeForbiddenAndKept() throws Exception {
+    Long id = videoService.create(new NewVideo("Kept for bob", "someone else's video"), "bob").getId();
+
+    assertThatExceptionOfType(AccessDeniedException.class) //
+      .isThrownBy(() -> videoService.delete(id, "alice"));
+    mvc.perform(post("/delete/videos/" + id).with(csrf())) //
+      .andExpect(status().isForbidden());
+
+    assertThat(countVideos(id)).isEqualTo(1);
+  }
+
+  @Test
+  void missingVideoShouldBeReported() {
+    assertThatExceptionOfType(RuntimeException.class) //
+      .isThrownBy(() -> videoService.delete(Long.MAX_VALUE, "alice")) //
+      .withMessage("No video at " + Long.MAX_VALUE);
+  }
+
+  private int countVideos(Long id) {
+    return jdbcTemplate.queryForObject("select count(*) from video_entity where id = ?", Integer.class, id);
+  }
+}
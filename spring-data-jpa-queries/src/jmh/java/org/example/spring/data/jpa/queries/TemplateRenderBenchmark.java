@@ -0,0 +1,149 @@
+package org.example.spring.data.jpa.queries;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the index page for {@code videos} VideoSummary rows in the three ways a request can get it: compiling
+ * index.mustache on every render (Spring Boot's MustacheView), from the template compiled once and rendered into a
+ * String first (app.templates.stream=false), and from the compiled template streamed into the response
+ * (app.templates.stream=true). The response is simulated by a Writer that hands its contents on every 8 KB, like the
+ * servlet response buffer.<br>
+ * Run with {@code ./gradlew :spring-data-jpa-queries:jmh -Pjmh.includes=TemplateRenderBenchmark}; the gc profiler
+ * reports gc.alloc.rate.norm, the bytes allocated per page, next to the average render time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+  private static final String TEMPLATE = "/templates/index.mustache";
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  @Param({"10", "1000", "100000"})
+  int videos;
+
+  Mustache.Compiler compiler;
+  Template template;
+  Map<String, Object> model;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    compiler = Mustache.compiler();
+    template = compile();
+    List<VideoSummary> summaries = new ArrayList<>(videos);
+    for (int i = 0; i < videos; i++) {
+      summaries.add(new VideoSummary((long) i, "Video " + i + " about SPRING BOOT 3", "Description of video " + i));
+    }
+    model = Map.of("videos", summaries, "truncated", false, "limit", 50);
+  }
+
+  @Benchmark
+  public void compiledPerRequest(Blackhole blackhole) throws IOException {
+    try (Writer response = new ResponseBuffer(blackhole)) {
+      compile().execute(model, response);
+    }
+  }
+
+  @Benchmark
+  public void precompiledBuffered(Blackhole blackhole) throws IOException {
+    StringWriter page = new StringWriter();
+    template.execute(model, page);
+    try (Writer response = new ResponseBuffer(blackhole)) {
+      response.write(page.toString());
+    }
+  }
+
+  @Benchmark
+  public void precompiledStreamed(Blackhole blackhole) throws IOException {
+    try (Writer response = new ResponseBuffer(blackhole)) {
+      template.execute(model, response);
+    }
+  }
+
+  private Template compile() throws IOException {
+    try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(TEMPLATE), StandardCharsets.UTF_8)) {
+      return compiler.compile(reader);
+    }
+  }
+
+  /**
+   * Stands in for the servlet response: collects up to CHUNK_SIZE chars, then passes them on as one chunk.
+   */
+  private static final class ResponseBuffer extends Writer {
+
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private final Blackhole blackhole;
+    private int used;
+
+    ResponseBuffer(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+      while (length > 0) {
+        int n = Math.min(length, chunk.length - used);
+        System.arraycopy(chars, offset, chunk, used, n);
+        used += n;
+        offset += n;
+        length -= n;
+        if (used == chunk.length) {
+          flush();
+        }
+      }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+      while (length > 0) {
+        int n = Math.min(length, chunk.length - used);
+        text.getChars(offset, offset + n, chunk, used);
+        used += n;
+        offset += n;
+        length -= n;
+        if (used == chunk.length) {
+          flush();
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+      blackhole.consume(chunk);
+      used = 0;
+    }
+
+    @Override
+    public void close() {
+      flush();
+    }
+  }
+}
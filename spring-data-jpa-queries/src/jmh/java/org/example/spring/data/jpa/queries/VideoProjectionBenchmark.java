@@ -0,0 +1,90 @@
+package org.example.spring.data.jpa.queries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading managed VideoEntity instances with loading read-only VideoSummary projections, for the full list
+ * and for a universal search, against an in-memory database seeded with {@code videos} rows.<br>
+ * The Hibernate second-level and query caches and the VideoSearchCache are switched off, so every call loads from the
+ * database.<br>
+ * Run with {@code ./gradlew :spring-data-jpa-queries:jmh}; the gc profiler reports gc.alloc.rate.norm, the bytes
+ * allocated per call, next to the average latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VideoProjectionBenchmark {
+
+  @Param({"1000", "10000"})
+  int videos;
+
+  ConfigurableApplicationContext context;
+  VideoService videoService;
+  UniversalSearch search;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(SpringDataJpaQueriesApplication.class) //
+      .web(WebApplicationType.NONE) //
+      .properties( //
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false", //
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false", //
+        "app.search.cache.maximum-size=0", //
+        "logging.level.root=WARN") //
+      .run();
+    videoService = context.getBean(VideoService.class);
+    List<NewVideo> newVideos = new ArrayList<>(videos);
+    for (int i = 0; i < videos; i++) {
+      newVideos.add(new NewVideo("Video " + i + (i % 10 == 0 ? " about SPRING" : ""), "Description of video " + i));
+    }
+    videoService.createAll(newVideos);
+    search = new UniversalSearch("spring");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<VideoEntity> listEntities() {
+    return videoService.getVideos();
+  }
+
+  @Benchmark
+  public List<VideoSummary> listSummaries() {
+    return videoService.getVideoSummaries();
+  }
+
+  @Benchmark
+  public List<VideoEntity> searchEntities() {
+    return videoService.search(search);
+  }
+
+  @Benchmark
+  public List<VideoSummary> searchSummaries() {
+    return videoService.searchSummaries(search);
+  }
+}
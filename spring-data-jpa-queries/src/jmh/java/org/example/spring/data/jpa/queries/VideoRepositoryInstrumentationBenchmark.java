@@ -0,0 +1,70 @@
+package org.example.spring.data.jpa.queries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the repository instrumentation of RepositoryMetricsConfig: the same repository calls with and without the
+ * spring.data.repository.invocations histogram timer and the SlowQueryLog advice and StatementInspector.<br>
+ * Both calls are answered from the Hibernate second-level and query caches, so the database does not drown out the
+ * difference. The gc profiler reports gc.alloc.rate.norm, the bytes allocated per call, next to the average latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VideoRepositoryInstrumentationBenchmark {
+
+  @Param({"false", "true"})
+  boolean instrumented;
+
+  ConfigurableApplicationContext context;
+  VideoRepository repository;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(SpringDataJpaQueriesApplication.class) //
+      .web(WebApplicationType.NONE) //
+      .properties( //
+        "management.metrics.data.repository.autotime.enabled=" + instrumented, //
+        "app.repository.slow-query.enabled=" + instrumented, //
+        "logging.level.root=WARN") //
+      .run();
+    repository = context.getBean(VideoRepository.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<VideoEntity> findById() {
+    return repository.findById(1L);
+  }
+
+  @Benchmark
+  public List<VideoEntity> findByNameContainsIgnoreCase() {
+    return repository.findByNameContainsIgnoreCase("code");
+  }
+}
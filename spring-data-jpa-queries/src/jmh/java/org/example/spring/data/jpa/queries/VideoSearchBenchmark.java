@@ -0,0 +1,126 @@
+package org.example.spring.data.jpa.queries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the database search strategies of VideoRepository against an in-memory H2 catalog of
+ * {@code catalogSize} videos, each with its video_popularity row.<br>
+ * About 1% of the names contain the search term, and about 2% of the videos fall under the popularity thresholds,
+ * so every strategy returns a result that grows with the catalog.<br>
+ * The Hibernate second-level and query caches are switched off, so every call reaches the database instead of
+ * replaying the first result (the JDBC seeding would not invalidate them either).<br>
+ * Run with {@code ./gradlew :spring-data-jpa-queries:jmh}; the gc profiler adds gc.alloc.rate and
+ * gc.alloc.rate.norm (bytes per operation) to the ops/s of each strategy. Large catalogs need a matching heap, see
+ * jmh.jvmArgs in build.gradle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VideoSearchBenchmark {
+
+  /**
+   * Ids of the seeded videos start above the three demo videos created by VideoService.initDatabase().
+   */
+  private static final long FIRST_ID = 1_000;
+
+  private static final String TERM = "spring";
+
+  @Param({"10000", "100000", "1000000", "10000000"})
+  long catalogSize;
+
+  ConfigurableApplicationContext context;
+  VideoRepository repository;
+  Example<VideoEntity> universalSearch;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(SpringDataJpaQueriesApplication.class) //
+      .web(WebApplicationType.NONE) //
+      .properties( //
+        "spring.datasource.url=jdbc:h2:mem:videos;DB_CLOSE_DELAY=-1", //
+        "spring.jpa.hibernate.ddl-auto=create-drop", //
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false", //
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false", //
+        "logging.level.root=WARN") //
+      .run();
+    repository = context.getBean(VideoRepository.class);
+    seed(context.getBean(JdbcTemplate.class));
+
+    // The probe VideoService.search(UniversalSearch) ran before the trigram index took over
+    VideoEntity probe = new VideoEntity();
+    probe.setName(TERM);
+    probe.setDescription(TERM);
+    universalSearch = Example.of(probe, //
+      ExampleMatcher.matchingAny() //
+        .withIgnoreCase() //
+        .withStringMatcher(StringMatcher.CONTAINING));
+  }
+
+  /**
+   * Seeds with set-based inserts straight in H2, which is orders of magnitude faster than going through JPA for
+   * millions of rows. The rows bypass the in-memory search structures, which these benchmarks do not use.
+   */
+  private void seed(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update("""
+      insert into video_entity (id, name, description)
+      select x, 'Video ' || x || case when mod(x, 100) = 0 then ' about SPRING' else '' end, 'Description of video ' || x
+      from system_range(?, ?)
+      """, FIRST_ID, FIRST_ID + catalogSize - 1);
+    jdbcTemplate.update("""
+      insert into video_popularity (video_id, views, likes)
+      select x, mod(x * 7919, 10000), mod(x * 104729, 1000)
+      from system_range(?, ?)
+      """, FIRST_ID, FIRST_ID + catalogSize - 1);
+    jdbcTemplate.execute("analyze");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<VideoEntity> findByNameContainsIgnoreCase() {
+    return repository.findByNameContainsIgnoreCase(TERM);
+  }
+
+  @Benchmark
+  public List<VideoEntity> findByNameContainsOrDescriptionContainsAllIgnoreCase() {
+    return repository.findByNameContainsOrDescriptionContainsAllIgnoreCase(TERM, TERM);
+  }
+
+  @Benchmark
+  public List<VideoEntity> findAllByExample() {
+    return repository.findAll(universalSearch);
+  }
+
+  @Benchmark
+  public List<VideoEntity> findVideosThatArentPopular() {
+    return repository.findVideosThatArentPopular(100L, 10L);
+  }
+}
@@ -1,28 +1,156 @@
 package org.example.spring.data.jpa.queries;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class ApiController {
 
+  static final String NDJSON = "application/x-ndjson";
+
   private final VideoService videoService;
+  private final VideoCsvImporter csvImporter;
+  private final ObjectMapper objectMapper;
 
-  public ApiController(VideoService videoService) {
+  public ApiController(VideoService videoService, VideoCsvImporter csvImporter, ObjectMapper objectMapper) {
     this.videoService = videoService;
+    this.csvImporter = csvImporter;
+    this.objectMapper = objectMapper;
   }
 
+  /**
+   * Cursor-paginated listing of all videos, ordered by id.
+   * @param after the next cursor of the previous page; omit it for the first page.
+   * @param limit the page size, capped at VideoService.MAX_PAGE_SIZE.
+   * @return the page, with the cursor for the next one (null on the last page).
+   */
   @GetMapping("/api/videos")
-  public List<VideoEntity> all() {
-    return videoService.getVideos();
+  public VideoPage all(@RequestParam(required = false) Long after, //
+    @RequestParam(defaultValue = "20") int limit) {
+    return videoService.getVideos(after, limit);
+  }
+
+  /**
+   * Exports every video as newline-delimited JSON, one object per line, in id order.
+   * Each row is serialized onto the response as it comes off the database cursor, so heap use stays flat however large
+   * the catalog is. Jackson buffers the output and only the response buffer decides when bytes go out on the wire.
+   */
+  @GetMapping("/api/videos/export")
+  public void export(HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON);
+    OutputStream out = response.getOutputStream();
+    try (SequenceWriter writer = objectMapper.writerFor(VideoEntity.class) //
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE) //
+      .withRootValueSeparator("\n") //
+      .writeValues(out)) {
+      long exported = videoService.forEachVideo(video -> {
+        try {
+          writer.write(video);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      if (exported > 0) {
+        writer.flush();
+        out.write('\n'); // the separator only goes between values; terminate the last line too
+      }
+    }
+  }
+
+  /**
+   * Multi-field search that queries name and description concurrently and gives up on the slower one at the deadline.
+   * @return the merged matches ordered by id, and whether they are partial.
+   */
+  @GetMapping("/api/videos/search")
+  public SearchResult search(@RequestParam(required = false) String name, //
+    @RequestParam(required = false) String description) {
+    return videoService.searchFanOut(new VideoSearch(name, description));
+  }
+
+  /**
+   * Multi-field search answered asynchronously: the request thread is released while the search runs on the bounded
+   * VideoSearchExecutor pool.
+   * @return the matches ordered by id; 503 Service Unavailable when the pool is saturated or app.search.async.timeout passes.
+   */
+  @GetMapping("/api/videos/search/async")
+  public CompletableFuture<List<VideoEntity>> searchAsync(@RequestParam(required = false) String name, //
+    @RequestParam(required = false) String description) {
+    return videoService.searchAsync(new VideoSearch(name, description));
   }
 
   @PostMapping("/api/videos")
   public VideoEntity newVideo(@RequestBody NewVideo newVideo) {
     return videoService.create(newVideo);
   }
+
+  /**
+   * Creates all videos of the array in chunked, JDBC-batched transactions.
+   * @return the number created, the elapsed time and the throughput in videos per second.
+   */
+  @PostMapping("/api/videos/batch")
+  public BatchResult newVideos(@RequestBody List<NewVideo> newVideos) {
+    return videoService.createAll(newVideos);
+  }
+
+  /**
+   * Imports a CSV body of name,description rows, streaming it into chunked, JDBC-batched transactions.
+   * @return the number of rows imported and rejected, the elapsed time and the throughput in rows per second.
+   */
+  @PostMapping(path = "/api/videos/import", consumes = "text/csv")
+  public ImportResult importVideos(Reader csv) throws IOException {
+    return csvImporter.importCsv(new BufferedReader(csv));
+  }
+
+  @DeleteMapping("/api/videos/{videoId}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void deleteVideo(@PathVariable Long videoId) {
+    videoService.delete(videoId);
+  }
+
+  /**
+   * Autocomplete for the search boxes, answered from the in-memory name trie.
+   * @param prefix the start of a video name, in any case.
+   * @param limit how many suggestions to return, capped at VideoService.MAX_SUGGESTIONS.
+   * @return distinct matching names in alphabetical order.
+   */
+  @GetMapping("/api/videos/suggest")
+  public List<String> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+    return videoService.suggest(prefix, limit);
+  }
+
+  @PostMapping("/api/videos/{videoId}/views")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void view(@PathVariable Long videoId) {
+    videoService.recordView(videoId);
+  }
+
+  @PostMapping("/api/videos/{videoId}/likes")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void like(@PathVariable Long videoId) {
+    videoService.recordLike(videoId);
+  }
+
+  @GetMapping("/api/videos/unpopular")
+  public List<VideoEntity> unpopular(@RequestParam Long minimumViews, @RequestParam Long minimumLikes) {
+    return videoService.findVideosThatArentPopular(minimumViews, minimumLikes);
+  }
 }
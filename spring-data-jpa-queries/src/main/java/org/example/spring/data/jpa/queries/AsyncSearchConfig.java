@@ -0,0 +1,34 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Type-safe settings for the asynchronous searches, bound from the app.search.async prefix.
+ * @param threads size of the pool running the searches. Each running search holds a connection, so keep it below
+ *                spring.datasource.hikari.maximum-pool-size.
+ * @param queueCapacity searches waiting for a thread before new ones are turned away with 503 Service Unavailable.
+ * @param timeout how long a search may take, counted from its submission. The time left when the search starts is its
+ *                transaction timeout, which Hibernate applies as the JDBC query timeout of every statement, rounded up
+ *                to whole seconds.
+ */
+@ConfigurationProperties("app.search.async")
+record AsyncSearchConfig( //
+  @DefaultValue("8") int threads, //
+  @DefaultValue("100") int queueCapacity, //
+  @DefaultValue("5s") Duration timeout) {
+
+  AsyncSearchConfig {
+    if (threads < 1) {
+      throw new IllegalArgumentException("app.search.async.threads must be at least 1, was " + threads);
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("app.search.async.queue-capacity must be at least 1, was " + queueCapacity);
+    }
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("app.search.async.timeout must be positive, was " + timeout);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Type-safe settings for bulk writes, bound from the app.batch prefix.
+ * @param chunkSize how many videos are persisted per transaction. Each chunk is flushed as JDBC batches of
+ *                  spring.jpa.properties.hibernate.jdbc.batch_size statements, so keep it a multiple of that.
+ * @param maxRecordLength the longest CSV record, in chars, that an import accepts. Longer ones are rejected before they
+ *                        are read in full, which bounds the memory a single malformed upload can take.
+ */
+@ConfigurationProperties("app.batch")
+record BatchConfig( //
+  @DefaultValue("1000") int chunkSize, //
+  @DefaultValue("65536") int maxRecordLength) {
+
+  BatchConfig {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("app.batch.chunk-size must be at least 1, was " + chunkSize);
+    }
+    if (maxRecordLength < 1) {
+      throw new IllegalArgumentException("app.batch.max-record-length must be at least 1, was " + maxRecordLength);
+    }
+  }
+}
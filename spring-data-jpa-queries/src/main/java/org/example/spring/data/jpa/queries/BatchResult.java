@@ -0,0 +1,15 @@
+package org.example.spring.data.jpa.queries;
+
+/**
+ * Outcome of a bulk write.
+ * @param created how many videos were persisted.
+ * @param elapsedMillis wall-clock time spent persisting them.
+ * @param videosPerSecond the resulting throughput.
+ */
+record BatchResult(long created, long elapsedMillis, double videosPerSecond) {
+
+  static BatchResult of(long created, long elapsedNanos) {
+    double seconds = elapsedNanos / 1_000_000_000d;
+    return new BatchResult(created, elapsedNanos / 1_000_000, seconds > 0 ? created / seconds : 0);
+  }
+}
@@ -0,0 +1,164 @@
+package org.example.spring.data.jpa.queries;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 CSV parser: reads one record at a time from the Reader, so only the current record is held in
+ * memory. Fields may be quoted, quoted fields may contain commas, doubled quotes and line breaks, and records may end
+ * with CRLF or LF. A record longer than the maximum length is rejected after reading that many chars, so a runaway
+ * record, such as one opening a quote it never closes, cannot buffer the rest of the input.
+ */
+final class CsvRecordReader {
+
+  private static final int EOF = -1;
+
+  private final Reader reader;
+  private final int maxRecordLength;
+  private final StringBuilder field = new StringBuilder();
+  private int recordLength;
+  private int pushedBack = Integer.MIN_VALUE;
+  private long line = 1;
+
+  /**
+   * @param reader read char by char, so it should be buffered.
+   * @param maxRecordLength the most chars a record may hold, counting field separators but not quotes.
+   */
+  CsvRecordReader(Reader reader, int maxRecordLength) {
+    this.reader = reader;
+    this.maxRecordLength = maxRecordLength;
+  }
+
+  /**
+   * @return the fields of the next record, or null at the end of the input.
+   * @throws MalformedRecordException if the record has a quoted field that is never closed, text after a closing
+   * quote, or more than the maximum length. The reader stays usable and continues with the next line.
+   */
+  List<String> next() throws IOException {
+    int c = read();
+    if (c == EOF) {
+      return null;
+    }
+    unread(c);
+    long startLine = line;
+    recordLength = 0;
+    List<String> fields = new ArrayList<>(2);
+    while (true) {
+      field.setLength(0);
+      c = read();
+      if (c == '"') {
+        c = readQuoted(startLine);
+      } else {
+        while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+          append(c, startLine);
+          c = read();
+        }
+      }
+      fields.add(field.toString());
+      if (c == ',') {
+        count(c, startLine);
+        continue;
+      }
+      endLine(c);
+      return fields;
+    }
+  }
+
+  /**
+   * @return the line the next record starts on, 1-based.
+   */
+  long line() {
+    return line;
+  }
+
+  /**
+   * Reads the rest of a quoted field into {@code field}.
+   * @return the char that ended the field.
+   */
+  private int readQuoted(long startLine) throws IOException {
+    while (true) {
+      int c = read();
+      if (c == EOF) {
+        throw new MalformedRecordException(startLine, "unterminated quoted field");
+      }
+      if (c == '"') {
+        c = read();
+        if (c != '"') {
+          if (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+            skipLine(c);
+            throw new MalformedRecordException(startLine, "unexpected text after a closing quote");
+          }
+          return c;
+        }
+      }
+      append(c, startLine);
+      if (c == '\n') {
+        line++;
+      }
+    }
+  }
+
+  private void append(int c, long startLine) throws IOException {
+    count(c, startLine);
+    field.append((char) c);
+  }
+
+  /**
+   * Counts a char of the current record. Past the maximum length, the rest of the line is skipped without being kept.
+   */
+  private void count(int c, long startLine) throws IOException {
+    if (++recordLength <= maxRecordLength) {
+      return;
+    }
+    if (c == '\n' || c == '\r') {
+      endLine(c);
+    } else {
+      skipLine(read());
+    }
+    throw new MalformedRecordException(startLine, "longer than " + maxRecordLength + " characters");
+  }
+
+  private void endLine(int c) throws IOException {
+    if (c == '\r') {
+      int next = read();
+      if (next != '\n') {
+        unread(next);
+      }
+    }
+    if (c != EOF) {
+      line++;
+    }
+  }
+
+  private void skipLine(int c) throws IOException {
+    while (c != '\n' && c != '\r' && c != EOF) {
+      c = read();
+    }
+    endLine(c);
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != Integer.MIN_VALUE) {
+      int c = pushedBack;
+      pushedBack = Integer.MIN_VALUE;
+      return c;
+    }
+    return reader.read();
+  }
+
+  private void unread(int c) {
+    pushedBack = c;
+  }
+
+  /**
+   * A record that is not valid CSV.
+   */
+  static final class MalformedRecordException extends IllegalArgumentException {
+
+    MalformedRecordException(long line, String problem) {
+      super("Line " + line + ": " + problem);
+    }
+  }
+}
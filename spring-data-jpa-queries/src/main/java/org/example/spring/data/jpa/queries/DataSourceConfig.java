@@ -0,0 +1,88 @@
+package org.example.spring.data.jpa.queries;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits reads from writes: the DataSource everything uses routes read-only transactions (the read-only repository
+ * finders, and VideoService reads run through its read-only TransactionTemplate) to the replicas of app.datasource,
+ * and all other work to the primary pool of spring.datasource.<br>
+ * Every pool is a named Hikari pool ("primary", "replica-1", ...) reporting the hikaricp.* meters tagged with its name.
+ * With replicas, only transactions on the primary fill the second-level cache, and the query cache is off.
+ */
+@Configuration(proxyBeanMethods = false)
+class DataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName(ReadOnlyRoutingDataSource.PRIMARY);
+    return primary;
+  }
+
+  @Bean
+  ReadOnlyRoutingDataSource readOnlyRoutingDataSource(HikariDataSource primaryDataSource, ReplicaConfig replicaConfig,
+    DataSourceProperties properties, MeterRegistry meterRegistry) {
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (ReplicaConfig.Replica replica : replicaConfig.replicas()) {
+      HikariDataSource pool = new HikariDataSource();
+      pool.setPoolName("replica-" + (replicas.size() + 1));
+      pool.setJdbcUrl(replica.url());
+      pool.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+      pool.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+      pool.setReadOnly(true);
+      pool.setMetricRegistry(meterRegistry); // the primary is a bean, which Spring Boot instruments by itself
+      replicas.add(pool);
+    }
+    return new ReadOnlyRoutingDataSource(primaryDataSource, replicas);
+  }
+
+  @Bean
+  @Primary
+  DataSource dataSource(ReadOnlyRoutingDataSource readOnlyRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(readOnlyRoutingDataSource);
+  }
+
+  /**
+   * The JpaTransactionManager Spring Boot would create, except that with replicas configured, read-only transactions
+   * do not fill the Hibernate caches (see ReplicaCacheModeTransactionManager).
+   */
+  @Bean
+  JpaTransactionManager transactionManager(ReplicaConfig replicaConfig,
+    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+    JpaTransactionManager transactionManager = replicaConfig.replicas().isEmpty() //
+      ? new JpaTransactionManager() //
+      : new ReplicaCacheModeTransactionManager();
+    transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+    return transactionManager;
+  }
+
+  /**
+   * Hibernate gives every query its own cache mode instead of the session's, so a query run on a replica would still
+   * put its (possibly lagging) rows into the query cache. With replicas configured, the query cache is turned off.
+   */
+  @Bean
+  HibernatePropertiesCustomizer replicaQueryCacheCustomizer(ReplicaConfig replicaConfig) {
+    return properties -> {
+      if (!replicaConfig.replicas().isEmpty()) {
+        properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+      }
+    };
+  }
+}
@@ -0,0 +1,27 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Type-safe settings for the fan-out multi-field search, bound from the app.search.fan-out prefix.
+ * @param threads size of the pool running the per-field lookups. Each running lookup holds its own connection, so
+ *                keep it well below spring.datasource.hikari.maximum-pool-size.
+ * @param deadline how long a search waits for all of its lookups before answering with the ones that finished.
+ */
+@ConfigurationProperties("app.search.fan-out")
+record FanOutConfig( //
+  @DefaultValue("4") int threads, //
+  @DefaultValue("2s") Duration deadline) {
+
+  FanOutConfig {
+    if (threads < 1) {
+      throw new IllegalArgumentException("app.search.fan-out.threads must be at least 1, was " + threads);
+    }
+    if (deadline.isNegative() || deadline.isZero()) {
+      throw new IllegalArgumentException("app.search.fan-out.deadline must be positive, was " + deadline);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the Hibernate second-level and query cache statistics (hibernate.generate_statistics) to Micrometer:
+ * hit and miss counters and hit ratios per cache, the queries that still went to the database, and the lookups the
+ * caches answered instead of the database.
+ */
+@Component
+class HibernateCacheMetrics implements MeterBinder {
+
+  private final Statistics statistics;
+
+  HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bindCache(registry, "second.level", Statistics::getSecondLevelCacheHitCount, Statistics::getSecondLevelCacheMissCount);
+    bindCache(registry, "query", Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount);
+    FunctionCounter.builder("hibernate.query.executions", statistics, Statistics::getQueryExecutionCount) //
+      .description("Queries executed against the database") //
+      .register(registry);
+    FunctionCounter.builder("hibernate.cache.round.trips.saved", statistics, //
+        s -> s.getSecondLevelCacheHitCount() + s.getQueryCacheHitCount()) //
+      .description("Entity and query lookups answered by the second-level and query caches instead of the database") //
+      .register(registry);
+  }
+
+  private void bindCache(MeterRegistry registry, String cache, ToDoubleFunction<Statistics> hits,
+    ToDoubleFunction<Statistics> misses) {
+    FunctionCounter.builder("hibernate.cache.requests", statistics, hits) //
+      .tags("cache", cache, "result", "hit") //
+      .register(registry);
+    FunctionCounter.builder("hibernate.cache.requests", statistics, misses) //
+      .tags("cache", cache, "result", "miss") //
+      .register(registry);
+    Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> ratio(hits.applyAsDouble(s), misses.applyAsDouble(s))) //
+      .tags("cache", cache) //
+      .description("Share of lookups served from the cache") //
+      .register(registry);
+  }
+
+  private static double ratio(double hits, double misses) {
+    double requests = hits + misses;
+    return requests == 0 ? Double.NaN : hits / requests;
+  }
+}
@@ -7,19 +7,28 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Controller
 public class HomeController {
 
   private final VideoService videoService;
+  private final SearchConfig searchConfig;
+  private final VideoSearchExecutor searchExecutor;
 
-  public HomeController(VideoService videoService) {
+  public HomeController(VideoService videoService, SearchConfig searchConfig, VideoSearchExecutor searchExecutor) {
     this.videoService = videoService;
+    this.searchConfig = searchConfig;
+    this.searchExecutor = searchExecutor;
   }
 
+  /**
+   * Renders the read-only VideoSummary projections: index.mustache only needs id, name and description.
+   */
   @GetMapping("/")
   public String index(Model model) {
-    model.addAttribute("videos", videoService.getVideos());
+    model.addAttribute("videos", videoService.getVideoSummaries());
     return "index";
   }
 
@@ -33,32 +42,49 @@ public class HomeController {
    * Method is marked for processing HTTP POST requests to the /multi-field-search.
    * @param search VideoSearch record type that is annotated with Spring MVC’s signal to deserialize the incoming form.
    * @param model is a mechanism to send information out for rendering.
-   *               Forwards VideoSearch criteria to VideoService in the search() method.
+   *               Forwards VideoSearch criteria to VideoService in the searchSummaries() method (read-only projections),
+   *               or to searchRankedSummaries() to keep only the best app.search.limit matches when app.search.ranked is set.
    *               Inserts the results into the Model object under the name videos.
-   * @return the name of the template to render, index. Spring Boot is responsible for translating this name to src/main/resources/templates/index.mustache.
+   *               The search runs on the VideoSearchExecutor pool, and the request thread goes back to Tomcat until it completes.
+   * @return the name of the template to render, index, once the search is done. Spring Boot is responsible for translating this name to src/main/resources/templates/index.mustache.
    */
   @PostMapping("/multi-field-search")
-  public String multiFieldSearch( //
+  public CompletableFuture<String> multiFieldSearch( //
     @ModelAttribute VideoSearch search, //
     Model model) { //
-    List<VideoEntity> searchResults =
-      videoService.search(search);
-    model.addAttribute("videos", searchResults);
-    return "index";
+    return render(() -> searchConfig.ranked() //
+      ? videoService.searchRankedSummaries(search, searchConfig.limit() + 1) //
+      : videoService.searchSummaries(search), model);
   }
 
   /**
    * Maps HTTP post requests /universal-search to this method.
    * Processes the incoming form, captured in the single-value UniversalSearch type.
-   * @param search DTO is passed on to the videoService search() method.
+   * @param search DTO is passed on to the videoService searchSummaries() method, or searchRankedSummaries() in ranked mode.
    * @param model search results are stored in the Model field to be rendered by the index template.
-   * @return index the name of the template to render.
+   * @return index the name of the template to render, once the search (run asynchronously, like multiFieldSearch) is done.
    */
 
   @PostMapping("/universal-search")
-  public String universalSearch(@ModelAttribute UniversalSearch search, Model model) {
-    List<VideoEntity> searchResults = videoService.search(search); //
-    model.addAttribute("videos", searchResults); //
-    return "index";
+  public CompletableFuture<String> universalSearch(@ModelAttribute UniversalSearch search, Model model) {
+    return render(() -> searchConfig.ranked() //
+      ? videoService.searchRankedSummaries(search, searchConfig.limit() + 1) //
+      : videoService.searchSummaries(search), model);
+  }
+
+  /**
+   * Runs the search on the VideoSearchExecutor and fills the model for the index template when it completes.
+   * In ranked mode the search asks for one match more than app.search.limit, which tells whether the list was cut.
+   * A saturated pool or a search past app.search.async.timeout fails the future with SearchUnavailableException (503).
+   */
+  private CompletableFuture<String> render(Supplier<List<VideoSummary>> search, Model model) {
+    int limit = searchConfig.limit();
+    return searchExecutor.submit(search).thenApply(searchResults -> {
+      boolean truncated = searchConfig.ranked() && searchResults.size() > limit;
+      model.addAttribute("truncated", truncated);
+      model.addAttribute("limit", limit);
+      model.addAttribute("videos", truncated ? searchResults.subList(0, limit) : searchResults);
+      return "index";
+    });
   }
 }
@@ -0,0 +1,17 @@
+package org.example.spring.data.jpa.queries;
+
+/**
+ * Outcome of a CSV import.
+ * @param imported how many rows were persisted as videos.
+ * @param rejected how many rows were skipped as malformed or invalid.
+ * @param elapsedMillis wall-clock time spent reading and persisting.
+ * @param rowsPerSecond rows read (imported or rejected) per second.
+ */
+record ImportResult(long imported, long rejected, long elapsedMillis, double rowsPerSecond) {
+
+  static ImportResult of(long imported, long rejected, long elapsedNanos) {
+    double seconds = elapsedNanos / 1_000_000_000d;
+    return new ImportResult(imported, rejected, elapsedNanos / 1_000_000,
+      seconds > 0 ? (imported + rejected) / seconds : 0);
+  }
+}
@@ -0,0 +1,103 @@
+package org.example.spring.data.jpa.queries;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.mustache.MustacheProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled Mustache templates, keyed by view URL (spring.mustache.prefix + view name + spring.mustache.suffix).<br>
+ * Spring Boot's MustacheView reads and compiles its template again on every render. Here every template under the
+ * prefix is compiled once at startup, and any other one the first time it is used; compiled templates are immutable
+ * and shared by all requests.<br>
+ * How the output reaches the client is up to app.templates: streamed into the response in chunks, or rendered into a
+ * String first. Streaming keeps the memory per request at one chunk whatever the size of the page; buffering holds
+ * the whole page, but can still turn a failure halfway through into an error page.
+ */
+class MustacheTemplates {
+
+  private static final Logger log = LoggerFactory.getLogger(MustacheTemplates.class);
+
+  private final Mustache.Compiler compiler;
+  private final ResourceLoader resourceLoader;
+  private final String charset;
+  private final TemplateConfig config;
+  private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+  MustacheTemplates(Mustache.Compiler compiler, ResourceLoader resourceLoader, MustacheProperties mustache,
+    TemplateConfig config) {
+    this.compiler = compiler;
+    this.resourceLoader = resourceLoader;
+    this.charset = mustache.getCharsetName();
+    this.config = config;
+    precompile(mustache.getPrefix(), mustache.getSuffix());
+  }
+
+  /**
+   * Renders the view at {@code url} with the model into the response, as set by app.templates.
+   */
+  void render(String url, Map<String, ?> model, HttpServletResponse response) throws IOException {
+    Template template = template(url);
+    if (config.stream()) {
+      response.setBufferSize((int) config.chunkSize().toBytes());
+      template.execute(model, response.getWriter());
+    } else {
+      StringWriter page = new StringWriter();
+      template.execute(model, page);
+      response.getWriter().write(page.toString());
+    }
+  }
+
+  Template template(String url) {
+    return templates.computeIfAbsent(url, this::compile);
+  }
+
+  int size() {
+    return templates.size();
+  }
+
+  /**
+   * Compiles every template below the prefix, keyed by the URL a view of that name would have.
+   */
+  private void precompile(String prefix, String suffix) {
+    try {
+      String root = resourceLoader.getResource(prefix).getURL().toString();
+      for (Resource resource : ResourcePatternUtils.getResourcePatternResolver(resourceLoader) //
+        .getResources(prefix + "**/*" + suffix)) {
+        String location = resource.getURL().toString();
+        if (location.startsWith(root)) {
+          String url = prefix + location.substring(root.length());
+          templates.put(url, compile(resource));
+        }
+      }
+      log.info("Precompiled {} Mustache templates under {}", templates.size(), prefix);
+    } catch (IOException e) {
+      log.info("No Mustache templates precompiled under {}: {}", prefix, e.getMessage());
+    }
+  }
+
+  private Template compile(String url) {
+    return compile(resourceLoader.getResource(url));
+  }
+
+  private Template compile(Resource resource) {
+    try (Reader reader = new InputStreamReader(resource.getInputStream(), charset)) {
+      return compiler.compile(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read Mustache template " + resource, e);
+    }
+  }
+}
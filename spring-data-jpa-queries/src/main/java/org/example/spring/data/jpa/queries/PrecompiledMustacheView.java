@@ -0,0 +1,28 @@
+package org.example.spring.data.jpa.queries;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.view.MustacheView;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * MustacheView that renders the template compiled once by MustacheTemplates instead of compiling it per request.
+ */
+class PrecompiledMustacheView extends MustacheView {
+
+  private MustacheTemplates templates;
+
+  @Override
+  protected void initApplicationContext() {
+    super.initApplicationContext();
+    this.templates = obtainApplicationContext().getBean(MustacheTemplates.class);
+  }
+
+  @Override
+  protected void renderMergedTemplateModel(Map<String, Object> model, HttpServletRequest request,
+    HttpServletResponse response) throws IOException {
+    templates.render(getUrl(), model, response);
+  }
+}
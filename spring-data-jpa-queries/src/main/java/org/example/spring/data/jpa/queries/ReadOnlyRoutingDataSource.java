@@ -0,0 +1,48 @@
+package org.example.spring.data.jpa.queries;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to the replica pools, round-robin, and everything else to the primary.
+ * <br>
+ * The routing decision reads the read-only flag of the current transaction, which Spring only sets after the
+ * transaction has begun, so this must sit behind a LazyConnectionDataSourceProxy that fetches the physical connection
+ * at the first statement. Closing it closes the replica pools it owns.
+ */
+class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  static final String PRIMARY = "primary";
+
+  private final List<HikariDataSource> replicas;
+  private final AtomicInteger next = new AtomicInteger();
+
+  ReadOnlyRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+    this.replicas = List.copyOf(replicas);
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    replicas.forEach(replica -> targets.put(replica.getPoolName(), replica));
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size())).getPoolName();
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(HikariDataSource::close);
+  }
+}
@@ -0,0 +1,46 @@
+package org.example.spring.data.jpa.queries;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the Hibernate second-level cache filled from the primary only.<br>
+ * A read-only transaction reads from a replica, which may lag behind the primary. Were it to put the entities it read
+ * into the cache, rows the primary has already changed (and evicted) would be cached again, and served until the next
+ * write to the same row rather than only for the replication lag. So while replicas are configured, the EntityManager
+ * of a read-only transaction gets the BYPASS cache store mode: it still reads the cache, but never adds to it. Queries
+ * ignore the session's mode, which is why DataSourceConfig also turns the query cache off.
+ */
+class ReplicaCacheModeTransactionManager extends JpaTransactionManager {
+
+  @Override
+  protected void doBegin(Object transaction, TransactionDefinition definition) {
+    super.doBegin(transaction, definition);
+    if (definition.isReadOnly()) {
+      entityManager().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+    }
+  }
+
+  /**
+   * Restores the default mode, in case the EntityManager outlives the transaction. Nothing else here sets one.
+   */
+  @Override
+  protected void doCleanupAfterCompletion(Object transaction) {
+    EntityManager entityManager = entityManager();
+    if (entityManager != null && entityManager.isOpen()) {
+      entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.USE);
+    }
+    super.doCleanupAfterCompletion(transaction);
+  }
+
+  private EntityManager entityManager() {
+    EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager //
+      .getResource(obtainEntityManagerFactory());
+    return holder == null ? null : holder.getEntityManager();
+  }
+}
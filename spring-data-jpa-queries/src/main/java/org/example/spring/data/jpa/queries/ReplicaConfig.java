@@ -0,0 +1,29 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Type-safe settings for the read replicas, bound from the app.datasource prefix. The primary is the one configured
+ * by spring.datasource.
+ * @param replicas the replica databases; read-only transactions are spread over them round-robin. Without any,
+ *                 everything runs on the primary.
+ */
+@ConfigurationProperties("app.datasource")
+record ReplicaConfig(@DefaultValue List<Replica> replicas) {
+
+  /**
+   * @param username defaults to spring.datasource.username.
+   * @param password defaults to spring.datasource.password.
+   */
+  record Replica(String url, String username, String password) {
+
+    Replica {
+      if (url == null || url.isBlank()) {
+        throw new IllegalArgumentException("app.datasource.replicas[].url must be set");
+      }
+    }
+  }
+}
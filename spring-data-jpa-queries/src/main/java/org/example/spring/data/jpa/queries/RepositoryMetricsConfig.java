@@ -0,0 +1,52 @@
+package org.example.spring.data.jpa.queries;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Instruments every Spring Data repository.<br>
+ * Latency per repository and method comes from Spring Boot's spring.data.repository.invocations timer, published
+ * with a percentile histogram (management.metrics.data.repository.autotime). On top of it, the SlowQueryLog adds
+ * advice to each repository proxy and is registered as the Hibernate StatementInspector, unless
+ * app.repository.slow-query.enabled is false. VideoRepositoryInstrumentationBenchmark measures what both cost per call.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.repository.slow-query.enabled", matchIfMissing = true)
+class RepositoryMetricsConfig {
+
+  @Bean
+  SlowQueryLog slowQueryLog(SlowQueryConfig config) {
+    return new SlowQueryLog(config);
+  }
+
+  @Bean
+  HibernatePropertiesCustomizer slowQueryStatementInspector(SlowQueryLog slowQueryLog) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, slowQueryLog);
+  }
+
+  /**
+   * Static, and resolving the SlowQueryLog only when the repositories are built, so registering it does not pull
+   * other beans in before post-processing is set up.
+   */
+  @Bean
+  static BeanPostProcessor slowQueryLogRepositoryPostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+          repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor( //
+            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice( //
+              slowQueryLog.getObject().interceptor(repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Type-safe settings for the universal search result cache, bound from the app.search.cache prefix.
+ * @param maximumSize how many distinct search terms are kept; the least valuable entries are evicted beyond that.
+ * @param ttl how long a result is kept after it was loaded, as a safety net behind the write invalidation.
+ */
+@ConfigurationProperties("app.search.cache")
+record SearchCacheConfig( //
+  @DefaultValue("1000") long maximumSize, //
+  @DefaultValue("10m") Duration ttl) {
+
+  SearchCacheConfig {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("app.search.cache.maximum-size must not be negative, was " + maximumSize);
+    }
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("app.search.cache.ttl must be positive, was " + ttl);
+    }
+  }
+}
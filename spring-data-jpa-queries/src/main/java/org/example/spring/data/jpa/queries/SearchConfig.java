@@ -0,0 +1,21 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Type-safe settings for the search pages, bound from the app.search prefix.
+ * @param ranked when true, /multi-field-search and /universal-search render only the best matches by relevance.
+ * @param limit how many ranked matches to keep (the K of the top-K).
+ */
+@ConfigurationProperties("app.search")
+record SearchConfig( //
+  @DefaultValue("false") boolean ranked, //
+  @DefaultValue("50") int limit) {
+
+  SearchConfig {
+    if (limit < 1) {
+      throw new IllegalArgumentException("app.search.limit must be at least 1, was " + limit);
+    }
+  }
+}
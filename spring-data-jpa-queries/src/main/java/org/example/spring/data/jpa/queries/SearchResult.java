@@ -0,0 +1,10 @@
+package org.example.spring.data.jpa.queries;
+
+import java.util.List;
+
+/**
+ * Videos found by a fan-out search, ordered by id.
+ * @param partial true if the deadline passed before every lookup finished, so matches may be missing.
+ */
+record SearchResult(List<VideoEntity> videos, boolean partial) {
+}
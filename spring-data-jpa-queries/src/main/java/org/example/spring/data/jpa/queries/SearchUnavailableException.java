@@ -0,0 +1,16 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an asynchronous search is turned away because its pool is saturated, or gives up at
+ * app.search.async.timeout; Spring MVC answers it with 503 Service Unavailable.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+class SearchUnavailableException extends RuntimeException {
+
+  SearchUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
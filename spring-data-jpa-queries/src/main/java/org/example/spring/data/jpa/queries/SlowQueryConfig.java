@@ -0,0 +1,22 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Type-safe settings for the slow repository call log, bound from the app.repository.slow-query prefix.
+ * The log itself is switched off with app.repository.slow-query.enabled=false, a condition on RepositoryMetricsConfig.
+ * @param threshold calls taking at least this long are logged with their arguments and SQL.
+ */
+@ConfigurationProperties("app.repository.slow-query")
+record SlowQueryConfig( //
+  @DefaultValue("500ms") Duration threshold) {
+
+  SlowQueryConfig {
+    if (threshold.isNegative()) {
+      throw new IllegalArgumentException("app.repository.slow-query.threshold must not be negative, was " + threshold);
+    }
+  }
+}
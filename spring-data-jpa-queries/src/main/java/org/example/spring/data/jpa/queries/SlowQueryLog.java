@@ -0,0 +1,87 @@
+package org.example.spring.data.jpa.queries;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs repository calls that take longer than app.repository.slow-query.threshold, with the arguments bound to the
+ * query and the SQL Hibernate sent for them.<br>
+ * It hands out the advice for every repository proxy, and is the Hibernate StatementInspector: while a call runs on a
+ * thread, the statements prepared on that thread are collected for it. Only the outermost repository call on a thread
+ * collects and logs. Statements Hibernate defers to a later flush, or that a returned Stream runs later, are not part
+ * of the call.
+ */
+class SlowQueryLog implements StatementInspector {
+
+  private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+  /**
+   * Bounds the statements kept per call, for calls that lazily load or batch many.
+   */
+  private static final int MAX_STATEMENTS = 20;
+
+  /**
+   * Bounds the logged form of each argument, for calls bound to long id lists.
+   */
+  private static final int MAX_ARGUMENT_LENGTH = 200;
+
+  private final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+  private final long thresholdNanos;
+
+  SlowQueryLog(SlowQueryConfig config) {
+    this.thresholdNanos = config.threshold().toNanos();
+  }
+
+  /**
+   * @return the advice for the proxy of one repository, which logs its calls under the repository's name.
+   */
+  MethodInterceptor interceptor(Class<?> repositoryInterface) {
+    return invocation -> invoke(repositoryInterface, invocation);
+  }
+
+  private Object invoke(Class<?> repositoryInterface, MethodInvocation invocation) throws Throwable {
+    if (statements.get() != null) {
+      return invocation.proceed(); // nested in another repository call, which logs for both
+    }
+    List<String> captured = new ArrayList<>(2);
+    statements.set(captured);
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      statements.remove();
+      if (elapsed >= thresholdNanos) {
+        log.warn("Slow repository call {}.{} took {} ms, arguments {}, SQL {}", //
+          repositoryInterface.getSimpleName(), invocation.getMethod().getName(), //
+          elapsed / 1_000_000, describe(invocation.getArguments()), captured);
+      }
+    }
+  }
+
+  @Override
+  public String inspect(String sql) {
+    List<String> captured = statements.get();
+    if (captured != null && captured.size() < MAX_STATEMENTS) {
+      captured.add(sql);
+    }
+    return sql;
+  }
+
+  private static String describe(Object[] arguments) {
+    return Arrays.stream(arguments) //
+      .map(argument -> {
+        String text = String.valueOf(argument);
+        return text.length() > MAX_ARGUMENT_LENGTH ? text.substring(0, MAX_ARGUMENT_LENGTH) + "..." : text;
+      }) //
+      .collect(Collectors.joining(", ", "[", "]"));
+  }
+}
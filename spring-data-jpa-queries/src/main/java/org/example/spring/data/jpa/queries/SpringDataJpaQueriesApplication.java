@@ -2,8 +2,14 @@ package org.example.spring.data.jpa.queries;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties({SearchConfig.class, SearchCacheConfig.class, FanOutConfig.class, //
+  BatchConfig.class, ReplicaConfig.class, SlowQueryConfig.class, AsyncSearchConfig.class, //
+  TemplateConfig.class})
 public class SpringDataJpaQueriesApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Type-safe settings for rendering the Mustache views, bound from the app.templates prefix.
+ * @param stream when true, views render straight into the response, which goes out in chunks of chunkSize as it
+ *               fills; when false, each page is rendered into one in-memory String first and written as a whole.
+ * @param chunkSize the response buffer size while streaming, and so the most rendered output held in memory.
+ */
+@ConfigurationProperties("app.templates")
+record TemplateConfig( //
+  @DefaultValue("true") boolean stream, //
+  @DefaultValue("8KB") DataSize chunkSize) {
+
+  TemplateConfig {
+    if (chunkSize.toBytes() < 1 || chunkSize.toBytes() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("app.templates.chunk-size must be between 1B and 2GB, was " + chunkSize);
+    }
+  }
+}
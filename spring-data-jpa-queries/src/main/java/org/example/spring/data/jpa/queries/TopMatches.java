@@ -0,0 +1,46 @@
+package org.example.spring.data.jpa.queries;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code limit} scored ids offered to it in a bounded min-heap, so the work and memory of ranking
+ * depend on the limit rather than on how many videos match.
+ */
+final class TopMatches {
+
+  /**
+   * Heap order with the weakest match at the head: lowest score first, and among equal scores the highest id
+   * (ties keep the older video, matching the id order of the unranked results).
+   */
+  private static final Comparator<Scored> WEAKEST_FIRST = Comparator.comparingInt(Scored::score) //
+    .thenComparing(Comparator.comparingLong(Scored::id).reversed());
+
+  private final PriorityQueue<Scored> best = new PriorityQueue<>(WEAKEST_FIRST);
+  private final int limit;
+
+  TopMatches(int limit) {
+    this.limit = limit;
+  }
+
+  void offer(long id, int score) {
+    best.offer(new Scored(id, score));
+    if (best.size() > limit) {
+      best.poll();
+    }
+  }
+
+  /**
+   * @return the ids kept, best first. Empties the heap.
+   */
+  long[] ranked() {
+    long[] ranked = new long[best.size()];
+    for (int i = ranked.length - 1; i >= 0; i--) {
+      ranked[i] = best.poll().id();
+    }
+    return ranked;
+  }
+
+  private record Scored(long id, int score) {
+  }
+}
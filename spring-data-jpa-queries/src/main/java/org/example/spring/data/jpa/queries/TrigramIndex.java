@@ -0,0 +1,288 @@
+package org.example.spring.data.jpa.queries;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from character trigrams to the documents containing them, for a single text field.<br>
+ * Every document gets a dense int ordinal when it is added, so posting lists are compact sorted int arrays. Removing
+ * a document frees its ordinal; once at least half the slots are free, the arrays are compacted instead of grown.<br>
+ * A search intersects the posting lists of the term's trigrams and then verifies each candidate with a real
+ * contains check, so the result is exactly "text contains term, ignoring case" - the same contract as the
+ * ContainsIgnoreCase finders. Terms shorter than a trigram fall back to scanning the stored texts.
+ */
+final class TrigramIndex {
+
+  private static final int GRAM = 3;
+  private static final long[] NO_IDS = new long[0];
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final Map<Long, PostingList> postings = new HashMap<>();
+  private long[] ids = new long[16];
+  private String[] texts = new String[16];
+  private int next;
+
+  /**
+   * Case folding shared by the index and its queries. It maps char by char, so folded text keeps the offsets of the
+   * original. That is simpler than the database's UPPER for the few characters whose upper case is longer: "ß" stays
+   * "ß" here but may become "SS" there, so "strasse" finds "Straße" in the database and not in the index.
+   */
+  static String fold(String text) {
+    char[] chars = text.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toUpperCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Indexes (or re-indexes) the text of a document. A null text is remembered as "matches nothing".
+   */
+  void add(long id, String text) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+      if (next == ids.length) {
+        if (ordinals.size() <= next / 2) {
+          compact();
+        } else {
+          ids = Arrays.copyOf(ids, next * 2);
+          texts = Arrays.copyOf(texts, next * 2);
+        }
+      }
+      int ordinal = next++;
+      String folded = text == null ? null : fold(text);
+      ids[ordinal] = id;
+      texts[ordinal] = folded;
+      ordinals.put(id, ordinal);
+      if (folded != null) {
+        for (long gram : grams(folded)) {
+          postings.computeIfAbsent(gram, g -> new PostingList()).append(ordinal);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void clear() {
+    lock.writeLock().lock();
+    try {
+      ordinals.clear();
+      postings.clear();
+      ids = new long[16];
+      texts = new String[16];
+      next = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the folded text indexed for the document, or null if it is unknown or has no text.
+   */
+  String text(long id) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(id);
+      return ordinal == null ? null : texts[ordinal];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param term the raw (unfolded) search term.
+   * @return ids of all documents whose text contains the term ignoring case, in ascending order.
+   */
+  long[] search(String term) {
+    String folded = fold(term);
+    lock.readLock().lock();
+    try {
+      if (folded.length() < GRAM) {
+        return scan(folded);
+      }
+      long[] grams = grams(folded);
+      PostingList[] lists = new PostingList[grams.length];
+      for (int i = 0; i < grams.length; i++) {
+        lists[i] = postings.get(grams[i]);
+        if (lists[i] == null) {
+          return NO_IDS; // a trigram of the term occurs nowhere, so nothing can contain the term
+        }
+      }
+      Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+      long[] matches = new long[lists[0].size];
+      int found = 0;
+      candidates:
+      for (int c = 0; c < lists[0].size; c++) {
+        int ordinal = lists[0].ordinals[c];
+        for (int l = 1; l < lists.length; l++) {
+          if (!lists[l].contains(ordinal)) {
+            continue candidates;
+          }
+        }
+        if (texts[ordinal].contains(folded)) {
+          matches[found++] = ids[ordinal];
+        }
+      }
+      return sorted(matches, found);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  boolean contains(long id) {
+    lock.readLock().lock();
+    try {
+      return ordinals.containsKey(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return ordinals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the ordinal slots allocated, used or not.
+   */
+  int capacity() {
+    lock.readLock().lock();
+    try {
+      return ids.length;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Renumbers the documents 0..n-1 in their current order, reclaiming the slots of removed ones. The renumbering keeps
+   * the order, so every posting list stays sorted. Called with the write lock held.
+   */
+  private void compact() {
+    int[] renumbered = new int[next];
+    int live = 0;
+    for (int ordinal = 0; ordinal < next; ordinal++) {
+      Integer current = ordinals.get(ids[ordinal]);
+      if (current != null && current == ordinal) {
+        renumbered[ordinal] = live;
+        ids[live] = ids[ordinal];
+        texts[live] = texts[ordinal];
+        ordinals.put(ids[live], live);
+        live++;
+      }
+    }
+    Arrays.fill(texts, live, next, null);
+    for (PostingList list : postings.values()) {
+      for (int i = 0; i < list.size; i++) {
+        list.ordinals[i] = renumbered[list.ordinals[i]];
+      }
+    }
+    next = live;
+  }
+
+  private long[] scan(String folded) {
+    long[] matches = new long[ordinals.size()];
+    int found = 0;
+    for (int ordinal = 0; ordinal < next; ordinal++) {
+      String text = texts[ordinal];
+      if (text != null && text.contains(folded)) {
+        matches[found++] = ids[ordinal];
+      }
+    }
+    return sorted(matches, found);
+  }
+
+  private void removeLocked(long id) {
+    Integer ordinal = ordinals.remove(id);
+    if (ordinal == null) {
+      return;
+    }
+    String folded = texts[ordinal];
+    texts[ordinal] = null;
+    if (folded != null) {
+      for (long gram : grams(folded)) {
+        PostingList list = postings.get(gram);
+        if (list != null && list.remove(ordinal) && list.size == 0) {
+          postings.remove(gram);
+        }
+      }
+    }
+  }
+
+  private static long[] sorted(long[] matches, int found) {
+    long[] result = Arrays.copyOf(matches, found);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * @return the distinct trigrams of already folded text, each packed into a long (three 16-bit chars).
+   */
+  static long[] grams(String folded) {
+    if (folded.length() < GRAM) {
+      return NO_IDS;
+    }
+    long[] grams = new long[folded.length() - GRAM + 1];
+    for (int i = 0; i < grams.length; i++) {
+      grams[i] = ((long) folded.charAt(i) << 32) | ((long) folded.charAt(i + 1) << 16) | folded.charAt(i + 2);
+    }
+    Arrays.sort(grams);
+    int distinct = 0;
+    for (int i = 0; i < grams.length; i++) {
+      if (i == 0 || grams[i] != grams[i - 1]) {
+        grams[distinct++] = grams[i];
+      }
+    }
+    return Arrays.copyOf(grams, distinct);
+  }
+
+  /**
+   * Sorted, growable list of ordinals. Ordinals are handed out in increasing order, so adds are appends.
+   */
+  private static final class PostingList {
+
+    private int[] ordinals = new int[4];
+    private int size;
+
+    void append(int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    boolean contains(int ordinal) {
+      return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+    }
+
+    boolean remove(int ordinal) {
+      int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+      if (index < 0) {
+        return false;
+      }
+      System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+      size--;
+      return true;
+    }
+  }
+}
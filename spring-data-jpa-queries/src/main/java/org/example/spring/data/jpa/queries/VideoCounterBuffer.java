@@ -0,0 +1,198 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Absorbs view and like events in memory and writes them to video_popularity in periodic batches.<br>
+ * Each video gets a pair of LongAdders, which stripe increments across cells, so concurrent events for a hot video
+ * never contend on a lock or a database row. Every app.counters.flush-interval milliseconds the accumulated deltas are
+ * drained and written with one JDBC batch of relative updates (views = views + ?, likes = likes + ?).<br>
+ * A delta is drained by subtracting exactly what was read, so increments racing with a flush are carried over to the
+ * next one, and a failed batch puts its deltas back. An entry a flush finds with nothing to drain has had no event
+ * since the previous flush: it is retired and removed, so only videos with recent events take memory. An increment that
+ * lands on a retired entry is moved to the current one, which keeps the increment path free of locks.
+ */
+@Component
+class VideoCounterBuffer {
+
+  private static final Logger log = LoggerFactory.getLogger(VideoCounterBuffer.class);
+
+  static final String FLUSH_SQL = "update video_popularity set views = views + ?, likes = likes + ? where video_id = ?";
+
+  private final Map<Long, Counters> pending = new ConcurrentHashMap<>();
+  private final LongAdder depth = new LongAdder();
+  private final JdbcTemplate jdbcTemplate;
+  private final Timer flushTimer;
+
+  VideoCounterBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.flushTimer = Timer.builder("video.counters.flush") //
+      .description("Time to write the buffered view and like deltas to video_popularity") //
+      .register(meterRegistry);
+    Gauge.builder("video.counters.buffer.depth", depth, LongAdder::sum) //
+      .description("View and like events buffered in memory, not yet flushed") //
+      .register(meterRegistry);
+  }
+
+  void addView(long videoId) {
+    add(videoId, true);
+  }
+
+  void addLike(long videoId) {
+    add(videoId, false);
+  }
+
+  private void add(long videoId, boolean view) {
+    Counters counters = pending.computeIfAbsent(videoId, id -> new Counters());
+    (view ? counters.views : counters.likes).increment();
+    while (counters.isRetired()) { // removed by a flush in the meantime, nothing drains it anymore
+      counters = counters.moveTo(pending.computeIfAbsent(videoId, id -> new Counters()));
+    }
+    depth.increment();
+  }
+
+  /**
+   * Drops whatever is buffered for a deleted video; its row is gone, so there is nothing left to flush it to. The deltas
+   * are drained like a flush drains them, and synchronized with it, so they are never taken off the depth twice. The
+   * emptied entry is removed by the next flush.
+   */
+  synchronized void discard(long videoId) {
+    Counters counters = pending.get(videoId);
+    if (counters != null) {
+      long views = counters.views.sum();
+      long likes = counters.likes.sum();
+      counters.views.add(-views);
+      counters.likes.add(-likes);
+      depth.add(-(views + likes));
+    }
+  }
+
+  long depth() {
+    return depth.sum();
+  }
+
+  /**
+   * @return how many videos have an entry, drained or not.
+   */
+  int pendingVideos() {
+    return pending.size();
+  }
+
+  /**
+   * Drains the buffered deltas into one JDBC batch. Synchronized so the scheduled flush and the shutdown flush never
+   * drain the same deltas twice.
+   * @return how many videos had their counters updated.
+   */
+  @Scheduled(fixedDelayString = "${app.counters.flush-interval:1000}")
+  synchronized int flush() {
+    return flushTimer.record(() -> {
+      List<Object[]> batch = new ArrayList<>();
+      List<Counters> drained = new ArrayList<>();
+      pending.forEach((videoId, counters) -> {
+        long views = counters.views.sum();
+        long likes = counters.likes.sum();
+        if (views != 0 || likes != 0) {
+          counters.views.add(-views);
+          counters.likes.add(-likes);
+          batch.add(new Object[] {views, likes, videoId});
+          drained.add(counters);
+        } else {
+          retire(videoId);
+        }
+      });
+      if (batch.isEmpty()) {
+        return 0;
+      }
+      try {
+        jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+      } catch (RuntimeException e) {
+        for (int i = 0; i < batch.size(); i++) { // put the deltas back for the next attempt
+          drained.get(i).views.add((long) batch.get(i)[0]);
+          drained.get(i).likes.add((long) batch.get(i)[1]);
+        }
+        log.warn("Could not flush {} buffered popularity counters, will retry", batch.size(), e);
+        return 0;
+      }
+      for (Object[] row : batch) {
+        depth.add(-((long) row[0] + (long) row[1]));
+      }
+      return batch.size();
+    });
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  /**
+   * Removes the entry if nothing is buffered in it, atomically with respect to computeIfAbsent() on the same video.
+   */
+  private void retire(long videoId) {
+    pending.computeIfPresent(videoId, (id, counters) -> counters.retire() ? null : counters);
+  }
+
+  private static final class Counters {
+    private static final int ACTIVE = 0;
+    private static final int RETIRING = 1;
+    private static final int RETIRED = 2;
+
+    final LongAdder views = new LongAdder();
+    final LongAdder likes = new LongAdder();
+    private volatile int state = ACTIVE;
+
+    /**
+     * Marks the counters as retiring before checking they are at zero, so an increment racing with the check is either
+     * seen by it, or sees the mark and waits for the outcome.
+     * @return whether the counters were at zero and are retired for good.
+     */
+    boolean retire() {
+      state = RETIRING;
+      boolean zero = views.sum() == 0 && likes.sum() == 0;
+      state = zero ? RETIRED : ACTIVE;
+      return zero;
+    }
+
+    /**
+     * To be called after an increment: if the counters are retired, the increment may have been missed by the check
+     * and must be moved to the current entry.
+     */
+    boolean isRetired() {
+      int current;
+      while ((current = state) == RETIRING) {
+        Thread.onSpinWait();
+      }
+      return current == RETIRED;
+    }
+
+    /**
+     * Moves what was added to these retired counters after the check to the successor, draining them the same way a
+     * flush does. An increment a flush drained before the retirement is no longer here, so it is not counted twice.
+     * Synchronized, as several late increments may try to move the same deltas.
+     * @return the successor, which the caller must check in turn.
+     */
+    synchronized Counters moveTo(Counters successor) {
+      long views = this.views.sum();
+      long likes = this.likes.sum();
+      this.views.add(-views);
+      this.likes.add(-likes);
+      successor.views.add(views);
+      successor.likes.add(likes);
+      return successor;
+    }
+  }
+}
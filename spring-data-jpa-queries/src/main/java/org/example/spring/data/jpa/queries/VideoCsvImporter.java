@@ -0,0 +1,137 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports videos from CSV with a name,description column pair per row, and an optional header row with exactly those
+ * names.<br>
+ * The body is parsed record by record and handed to VideoService.createChunk() every app.batch.chunk-size rows, so
+ * memory holds at most one chunk whatever the file size. While a chunk is being persisted nothing is read, which
+ * lets TCP flow control slow the sender down to the speed of the database.<br>
+ * Rows with the wrong number of fields, a blank name, broken quoting or more than app.batch.max-record-length chars are
+ * rejected and counted, and the import goes on.
+ * Blank lines, such as the trailing ones many tools write, are not rows and are skipped without being counted.
+ * Meters: video.import.rows (result=imported|rejected), video.import.in.flight (rows read by imports still running)
+ * and the video.import timer.
+ */
+@Component
+class VideoCsvImporter {
+
+  private static final Logger log = LoggerFactory.getLogger(VideoCsvImporter.class);
+
+  private final VideoService videoService;
+  private final BatchConfig batchConfig;
+  private final Counter importedRows;
+  private final Counter rejectedRows;
+  private final Timer imports;
+  private final AtomicLong inFlight = new AtomicLong();
+
+  VideoCsvImporter(VideoService videoService, BatchConfig batchConfig, MeterRegistry meterRegistry) {
+    this.videoService = videoService;
+    this.batchConfig = batchConfig;
+    this.importedRows = Counter.builder("video.import.rows").tag("result", "imported") //
+      .description("CSV rows imported as videos") //
+      .register(meterRegistry);
+    this.rejectedRows = Counter.builder("video.import.rows").tag("result", "rejected") //
+      .description("CSV rows rejected as malformed or invalid") //
+      .register(meterRegistry);
+    this.imports = Timer.builder("video.import") //
+      .description("Duration of CSV imports") //
+      .register(meterRegistry);
+    Gauge.builder("video.import.in.flight", inFlight, AtomicLong::get) //
+      .description("Rows read so far by the CSV imports that are still running") //
+      .register(meterRegistry);
+  }
+
+  /**
+   * Chunks persisted before a database failure stay persisted; the failure ends the import.
+   */
+  ImportResult importCsv(Reader csv) throws IOException {
+    long start = System.nanoTime();
+    CsvRecordReader records = new CsvRecordReader(csv, batchConfig.maxRecordLength());
+    List<NewVideo> chunk = new ArrayList<>(batchConfig.chunkSize());
+    long imported = 0;
+    long rejected = 0;
+    try {
+      boolean first = true;
+      while (true) {
+        long line = records.line();
+        List<String> fields;
+        try {
+          fields = records.next();
+        } catch (CsvRecordReader.MalformedRecordException e) {
+          first = false;
+          inFlight.incrementAndGet();
+          rejected++;
+          reject(e.getMessage());
+          continue;
+        }
+        if (fields == null) {
+          break;
+        }
+        if (fields.size() == 1 && fields.get(0).isBlank()) {
+          continue;
+        }
+        boolean header = first && isHeader(fields);
+        first = false;
+        if (header) {
+          continue;
+        }
+        inFlight.incrementAndGet();
+        if (fields.size() != 2 || !StringUtils.hasText(fields.get(0))) {
+          rejected++;
+          reject(fields.size() != 2 //
+            ? "Line " + line + ": expected a name and a description, got " + fields.size() + " field(s)" //
+            : "Line " + line + ": the name is blank");
+          continue;
+        }
+        chunk.add(new NewVideo(fields.get(0), fields.get(1)));
+        if (chunk.size() == batchConfig.chunkSize()) {
+          imported += flush(chunk);
+          log.debug("Imported {} rows so far, {} rejected", imported, rejected);
+        }
+      }
+      imported += flush(chunk);
+      return ImportResult.of(imported, rejected, System.nanoTime() - start);
+    } finally {
+      inFlight.addAndGet(-(imported + rejected + chunk.size()));
+      imports.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private int flush(List<NewVideo> chunk) {
+    if (chunk.isEmpty()) {
+      return 0;
+    }
+    videoService.createChunk(List.copyOf(chunk));
+    int flushed = chunk.size();
+    importedRows.increment(flushed);
+    chunk.clear();
+    return flushed;
+  }
+
+  private void reject(String reason) {
+    rejectedRows.increment();
+    log.debug("Rejected CSV row. {}", reason);
+  }
+
+  private static boolean isHeader(List<String> fields) {
+    return fields.size() == 2 //
+      && "name".equalsIgnoreCase(fields.get(0).strip()) //
+      && "description".equalsIgnoreCase(fields.get(1).strip());
+  }
+}
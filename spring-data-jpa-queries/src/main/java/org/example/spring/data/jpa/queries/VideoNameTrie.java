@@ -0,0 +1,316 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact prefix trie (radix tree) over the lower-cased names of all videos, backing autocomplete.<br>
+ * Chains of single-child nodes are collapsed into one edge labelled with several chars, and children are kept in an
+ * array sorted by their first char, so a lookup walks at most one node per distinct branching point of the prefix and
+ * then collects names depth-first in alphabetical order.<br>
+ * Each name node counts how many videos carry that name and remembers the first spelling it was added with, which is
+ * what gets suggested. Its estimated footprint is published as the video.suggest.trie.bytes gauge; the estimate and
+ * the node count are kept up to date by every change, so reading them neither walks the tree nor takes the lock.
+ */
+@Component
+class VideoNameTrie {
+
+  /**
+   * Rough per-object costs on a 64-bit JVM with compressed oops, used for the footprint estimate.
+   */
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Node root;
+  // written under the write lock only
+  private volatile long bytes;
+  private volatile long nodes;
+
+  VideoNameTrie(MeterRegistry meterRegistry) {
+    reset();
+    Gauge.builder("video.suggest.trie.bytes", this, VideoNameTrie::estimatedBytes) //
+      .description("Estimated heap footprint of the video name autocomplete trie") //
+      .baseUnit("bytes") //
+      .register(meterRegistry);
+    Gauge.builder("video.suggest.trie.nodes", this, VideoNameTrie::nodeCount) //
+      .description("Nodes in the video name autocomplete trie") //
+      .register(meterRegistry);
+  }
+
+  void add(String name) {
+    if (name == null) {
+      return;
+    }
+    char[] key = key(name);
+    lock.writeLock().lock();
+    try {
+      Node node = root;
+      int depth = 0;
+      while (depth < key.length) {
+        int slot = node.slot(key[depth]);
+        if (slot < 0) {
+          Node leaf = new Node(Arrays.copyOfRange(key, depth, key.length));
+          long before = size(node);
+          node.insertChild(-slot - 1, leaf);
+          bytes += size(node) - before + size(leaf);
+          nodes++;
+          node = leaf;
+          depth = key.length;
+          break;
+        }
+        Node child = node.children[slot];
+        int common = commonPrefix(child.label, key, depth);
+        if (common < child.label.length) {
+          child = split(node, slot, common);
+        }
+        node = child;
+        depth += common;
+      }
+      if (node.count++ == 0) {
+        long before = size(node);
+        node.name = name;
+        bytes += size(node) - before;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(String name) {
+    if (name == null) {
+      return;
+    }
+    char[] key = key(name);
+    lock.writeLock().lock();
+    try {
+      List<Node> path = new ArrayList<>();
+      Node node = root;
+      int depth = 0;
+      path.add(node);
+      while (depth < key.length) {
+        int slot = node.slot(key[depth]);
+        if (slot < 0) {
+          return;
+        }
+        Node child = node.children[slot];
+        if (commonPrefix(child.label, key, depth) < child.label.length) {
+          return;
+        }
+        node = child;
+        depth += child.label.length;
+        path.add(node);
+      }
+      if (node.count == 0 || --node.count > 0) {
+        return;
+      }
+      long before = size(node);
+      node.name = null;
+      bytes += size(node) - before;
+      prune(path);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void clear() {
+    lock.writeLock().lock();
+    try {
+      reset();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void reset() {
+    root = new Node(new char[0]);
+    bytes = size(root);
+    nodes = 1;
+  }
+
+  /**
+   * @return up to {@code limit} distinct names starting with the prefix (ignoring case), in alphabetical order.
+   */
+  List<String> suggest(String prefix, int limit) {
+    char[] key = key(prefix);
+    List<String> suggestions = new ArrayList<>(Math.min(limit, 64));
+    lock.readLock().lock();
+    try {
+      Node node = root;
+      int depth = 0;
+      while (depth < key.length) {
+        int slot = node.slot(key[depth]);
+        if (slot < 0) {
+          return suggestions;
+        }
+        node = node.children[slot];
+        int common = commonPrefix(node.label, key, depth);
+        if (common < node.label.length && depth + common < key.length) {
+          return suggestions; // diverges inside this edge
+        }
+        depth += common;
+      }
+      collect(node, limit, suggestions);
+      return suggestions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long estimatedBytes() {
+    return bytes;
+  }
+
+  long nodeCount() {
+    return nodes;
+  }
+
+  private static char[] key(String name) {
+    return name.toLowerCase(Locale.ROOT).toCharArray();
+  }
+
+  private static int commonPrefix(char[] label, char[] key, int offset) {
+    int common = 0;
+    while (common < label.length && offset + common < key.length && label[common] == key[offset + common]) {
+      common++;
+    }
+    return common;
+  }
+
+  /**
+   * Splits the edge to {@code parent.children[slot]} after {@code at} chars and returns the new intermediate node.
+   */
+  private Node split(Node parent, int slot, int at) {
+    Node child = parent.children[slot];
+    long before = size(child);
+    Node middle = new Node(Arrays.copyOf(child.label, at));
+    child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+    middle.children = new Node[] {child};
+    parent.children[slot] = middle;
+    bytes += size(child) - before + size(middle);
+    nodes++;
+    return middle;
+  }
+
+  /**
+   * Walks back up from a node that no longer names anything, removing empty leaves and merging nodes left with a
+   * single child into it, so the tree stays compact after deletes.
+   */
+  private void prune(List<Node> path) {
+    for (int i = path.size() - 1; i > 0; i--) {
+      Node node = path.get(i);
+      Node parent = path.get(i - 1);
+      if (node.count > 0) {
+        return;
+      }
+      if (node.children.length == 0) {
+        long before = size(parent) + size(node);
+        parent.removeChild(parent.slot(node.label[0]));
+        bytes += size(parent) - before;
+        nodes--;
+        continue;
+      }
+      if (node.children.length == 1) {
+        Node only = node.children[0];
+        long before = size(node) + size(only);
+        char[] merged = Arrays.copyOf(node.label, node.label.length + only.label.length);
+        System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+        only.label = merged;
+        parent.children[parent.slot(node.label[0])] = only;
+        bytes += size(only) - before;
+        nodes--;
+      }
+      return;
+    }
+  }
+
+  private static void collect(Node node, int limit, List<String> suggestions) {
+    if (suggestions.size() >= limit) {
+      return;
+    }
+    if (node.count > 0) {
+      suggestions.add(node.name);
+    }
+    for (Node child : node.children) {
+      collect(child, limit, suggestions);
+      if (suggestions.size() >= limit) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return the estimated footprint of the node alone, without its children. Every change to a node adjusts the
+   * running total by the difference of this before and after.
+   */
+  private static long size(Node node) {
+    long bytes = align(OBJECT_HEADER + 3 * REFERENCE + Integer.BYTES) // the node itself
+      + align(OBJECT_HEADER + Character.BYTES * (long) node.label.length) // its label
+      + align(OBJECT_HEADER + REFERENCE * (long) node.children.length); // its children array
+    if (node.name != null) {
+      bytes += align(OBJECT_HEADER + 2 * Integer.BYTES) + align(OBJECT_HEADER + node.name.length()); // String + bytes
+    }
+    return bytes;
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  private static final class Node {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    char[] label;
+    Node[] children = NO_CHILDREN;
+    int count;
+    String name;
+
+    Node(char[] label) {
+      this.label = label;
+    }
+
+    /**
+     * @return the index of the child whose label starts with c, or (-(insertion point) - 1) like Arrays.binarySearch.
+     */
+    int slot(char c) {
+      int low = 0;
+      int high = children.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        char first = children[mid].label[0];
+        if (first < c) {
+          low = mid + 1;
+        } else if (first > c) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    void insertChild(int index, Node child) {
+      Node[] grown = new Node[children.length + 1];
+      System.arraycopy(children, 0, grown, 0, index);
+      grown[index] = child;
+      System.arraycopy(children, index, grown, index + 1, children.length - index);
+      children = grown;
+    }
+
+    void removeChild(int index) {
+      Node[] shrunk = new Node[children.length - 1];
+      System.arraycopy(children, 0, shrunk, 0, index);
+      System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+      children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+    }
+  }
+}
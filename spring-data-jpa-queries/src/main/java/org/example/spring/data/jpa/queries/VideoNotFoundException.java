@@ -0,0 +1,15 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request names a video id that does not exist; Spring MVC answers it with 404 Not Found.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+class VideoNotFoundException extends RuntimeException {
+
+  VideoNotFoundException(Long videoId) {
+    super("No video at " + videoId);
+  }
+}
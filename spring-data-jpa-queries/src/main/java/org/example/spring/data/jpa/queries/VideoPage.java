@@ -0,0 +1,11 @@
+package org.example.spring.data.jpa.queries;
+
+import java.util.List;
+
+/**
+ * One page of videos for GET /api/videos, ordered by id.
+ * @param videos the videos on this page.
+ * @param next the cursor for the following page (pass it back as ?after=), or null on the last page.
+ */
+record VideoPage(List<VideoEntity> videos, Long next) {
+}
@@ -0,0 +1,54 @@
+package org.example.spring.data.jpa.queries;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Narrow, one-row-per-video projection of the popularity counters, kept in the video_popularity table.
+ * It shares its primary key with the video (MapsId) and indexes views and likes, so popularity questions
+ * are answered from this table without touching anything else.
+ * The counters are maintained incrementally with relative updates (views = views + ?) rather than read-modify-write.
+ */
+@Entity
+@Table(name = "video_popularity", indexes = { //
+  @Index(name = "video_popularity_views", columnList = "views"), //
+  @Index(name = "video_popularity_likes", columnList = "likes")})
+class VideoPopularity {
+
+  @Id
+  private Long videoId;
+  @MapsId
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "video_id")
+  private VideoEntity video;
+  private long views;
+  private long likes;
+
+  protected VideoPopularity() {}
+
+  VideoPopularity(VideoEntity video) {
+    this.video = video;
+  }
+
+  public Long getVideoId() {
+    return videoId;
+  }
+
+  public VideoEntity getVideo() {
+    return video;
+  }
+
+  public long getViews() {
+    return views;
+  }
+
+  public long getLikes() {
+    return likes;
+  }
+}
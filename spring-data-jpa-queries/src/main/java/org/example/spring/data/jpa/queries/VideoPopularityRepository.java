@@ -0,0 +1,24 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Maintains the video_popularity projection. The counters themselves only ever move through the relative updates
+ * batched by VideoCounterBuffer, so concurrent writers never overwrite each other's increments.
+ */
+interface VideoPopularityRepository extends JpaRepository<VideoPopularity, Long> {
+
+  /**
+   * Gives every video that has no popularity row yet one with zero views and likes.
+   * @return the number of rows inserted.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+    insert into video_popularity (video_id, views, likes)
+    select v.id, 0, 0 from video_entity v
+    where not exists (select 1 from video_popularity p where p.video_id = v.id)
+    """)
+  int backfill();
+}
@@ -1,43 +1,100 @@
 package org.example.spring.data.jpa.queries;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface extending JpaRepository with two generic parameters: VideoEntity and Long (the domain type and the primary key type)
  * JpaRepository, a Spring Data JPA interface, contains a set of already supported Change Replace Update Delete (CRUD) operations
   */
 public interface  VideoRepository extends JpaRepository<VideoEntity, Long> {
+
+  /**
+   * Redeclares findAll() to cache its result in the Hibernate query cache. The query cache keeps only ids, and the
+   * videos come from the second-level cache; any write to video_entity invalidates the cached result.
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<VideoEntity> findAll();
+
   /**
    * Custom finder method that Spring Data implements by parsing the method name.
    * @param partialName
    * @return a List of type <Video Entity>, indicating it must return a list of the repository’s domain type.
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<VideoEntity> findByNameContainsIgnoreCase(String partialName);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<VideoEntity> findByDescriptionContainsIgnoreCase(String partialDescription);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<VideoEntity> findByNameContainsOrDescriptionContainsAllIgnoreCase(String partialName,
     String partialDescription);
 
   /**
-   * Supplies a custom JPQL statement that joins four different tables together, using standard inner joins.<br>
+   * Keyset (seek) pagination: WHERE id > :id ORDER BY id, limited by the page size of the Pageable.
+   * The primary key index jumps straight to the cursor, so deep pages cost the same as the first one, unlike OFFSET.
+   * Returning a List instead of a Page also skips the count query.
+   * @param id the last id of the previous page.
+   * @param pageable only the page size is meant to be used, always with page number 0.
+   */
+  List<VideoEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  /**
+   * Derived DTO projection of findAll(): Spring Data selects only id, name and description into VideoSummary records,
+   * which are plain values, never managed entities.
+   * The rows are kept in the query cache until the next write to video_entity, so rendering "/" again is free.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<VideoSummary> findAllProjectedBy();
+
+  /**
+   * Derived DTO projection of findAll(Pageable), without the count query. Cached like findAllProjectedBy().
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<VideoSummary> findAllProjectedBy(Pageable pageable);
+
+  /**
+   * Derived DTO projection of findAllById(), used to load search hits without hydrating entities.
+   */
+  List<VideoSummary> findSummariesByIdIn(Collection<Long> ids);
+
+  /**
+   * Streams every video, in id order, from a forward-only cursor (Hibernate ScrollableResults) rather than a List.
+   * The JDBC driver fetches rows in batches of the fetch size and the entities are loaded read-only, without dirty-checking snapshots.
+   * Must be consumed inside a transaction, and the Stream must be closed.
+   */
+  @QueryHints({ //
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), //
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  Stream<VideoEntity> streamAllByOrderByIdAsc();
+
+  /**
+   * Supplies a custom JPQL statement that reads the narrow, indexed video_popularity projection instead of joining
+   * the engagement data on every call: the filter on views and likes is answered by the indexes of that table alone,
+   * and only the matching videos are joined in by primary key.<br>
    * Binds named parameters :minimumViews and :minimumLikes to the method arguments by the Spring Data @Param("minimumViews") and @Param("minimumLikes") annotations.<br>
-   * (instead of the default positional parameters)
+   * (instead of the default positional parameters)<br>
+   * Not query-cached: VideoCounterBuffer moves the counters with plain JDBC batches Hibernate never sees, so a cached
+   * result could not be invalidated. The matching videos still come from the second-level cache.
    * @return List<VideoEntity>, Spring Data will form a collection.
    */
 
   @Query(
           """
-          select v FROM VideoEntity v
-          JOIN v.metrics m
-          JOIN m.activity a
-          JOIN v.engagement e
-          WHERE a.views < :minimumViews
-          OR e.likes < :minimumLikes
+          select p.video FROM VideoPopularity p
+          WHERE p.views < :minimumViews
+          OR p.likes < :minimumLikes
           """
   )
   List<VideoEntity> findVideosThatArentPopular(//
@@ -0,0 +1,91 @@
+package org.example.spring.data.jpa.queries;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of universal search results, keyed by the case-folded search value (and the ranked limit, if any).<br>
+ * Entries are evicted by size and by age (app.search.cache), and precisely on writes: a created or deleted video can
+ * only change the results of the terms its name or description contains, plus the blank term that lists everything,
+ * so only those are dropped.<br>
+ * Results are immutable VideoSummary lists, so a hit can be handed to any number of requests. Hit, miss and eviction
+ * counts are published as the cache.* meters tagged cache=video.search.
+ */
+@Component
+class VideoSearchCache {
+
+  /**
+   * The limit of unranked searches, which return every match.
+   */
+  static final int UNLIMITED = 0;
+
+  private final Cache<Key, List<VideoSummary>> cache;
+  private final AtomicLong generation = new AtomicLong();
+
+  VideoSearchCache(SearchCacheConfig config, MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder() //
+      .maximumSize(config.maximumSize()) //
+      .expireAfterWrite(config.ttl()) //
+      .recordStats() //
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "video.search");
+  }
+
+  /**
+   * @return the cached result for the search, or the one just loaded. A load that races with a write is returned but
+   * not kept, so a result that may predate the write cannot outlive it.
+   */
+  List<VideoSummary> get(UniversalSearch search, int limit, Supplier<List<VideoSummary>> loader) {
+    Key key = new Key(normalize(search.value()), limit);
+    List<VideoSummary> cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    long loadedAt = generation.get();
+    List<VideoSummary> loaded = List.copyOf(loader.get());
+    cache.put(key, loaded);
+    if (generation.get() != loadedAt) {
+      cache.invalidate(key); // a write landed while loading, and its sweep may have run before the put
+    }
+    return loaded;
+  }
+
+  /**
+   * Drops the results a created or deleted video can change: those of the terms its name or description contains.
+   */
+  void invalidate(VideoEntity video) {
+    generation.incrementAndGet();
+    String name = video.getName() == null ? "" : TrigramIndex.fold(video.getName());
+    String description = video.getDescription() == null ? "" : TrigramIndex.fold(video.getDescription());
+    cache.asMap().keySet().removeIf(key -> key.term().isEmpty() //
+      || name.contains(key.term()) //
+      || description.contains(key.term()));
+  }
+
+  void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  long size() {
+    return cache.estimatedSize();
+  }
+
+  /**
+   * Blank values all mean "every video"; anything else matches ignoring case, so it is folded the way the index folds.
+   */
+  static String normalize(String value) {
+    return StringUtils.hasText(value) ? TrigramIndex.fold(value) : "";
+  }
+
+  private record Key(String term, int limit) {
+  }
+}
@@ -0,0 +1,58 @@
+package org.example.spring.data.jpa.queries;
+
+import java.util.List;
+
+/**
+ * In-memory search over the name and description of every VideoEntity, answering the same questions as the
+ * ContainsIgnoreCase custom finders without the database. All lookups return ids in ascending order, except findTop.
+ * <br>
+ * VideoService rebuilds it at startup and keeps it current on create and delete. app.search.engine picks the
+ * implementation: the trigram VideoSearchIndex (index, the default) or the scanning VideoSearchSnapshot (snapshot).
+ */
+interface VideoSearchEngine {
+
+  /**
+   * A term hit in the name counts this many times more than a hit in the description.
+   */
+  int NAME_WEIGHT = 3;
+
+  void clear();
+
+  void add(VideoEntity video);
+
+  /**
+   * Adds a chunk of videos at once, which an engine may apply as a single update.
+   */
+  default void addAll(List<VideoEntity> videos) {
+    videos.forEach(this::add);
+  }
+
+  void remove(Long videoId);
+
+  /**
+   * Same matches as VideoRepository.findByNameContainsIgnoreCase().
+   */
+  long[] findByName(String partialName);
+
+  /**
+   * Same matches as VideoRepository.findByDescriptionContainsIgnoreCase().
+   */
+  long[] findByDescription(String partialDescription);
+
+  /**
+   * Same matches as VideoRepository.findByNameContainsOrDescriptionContainsAllIgnoreCase(): the union of both fields.
+   */
+  long[] findByNameOrDescription(String partialName, String partialDescription);
+
+  /**
+   * Scores every match of the given terms and keeps only the best {@code limit} of them.
+   * A video scores {@link #NAME_WEIGHT} per occurrence of the name term in its name plus one per occurrence of the
+   * description term in its description. Either term may be null to leave that field out of the search.
+   * @return the ids of the best matches, best first.
+   */
+  long[] findTop(String partialName, String partialDescription, int limit);
+
+  boolean contains(long id);
+
+  int size();
+}
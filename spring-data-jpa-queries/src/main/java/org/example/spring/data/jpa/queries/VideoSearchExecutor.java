@@ -0,0 +1,126 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLTimeoutException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs searches off the servlet threads, so a slow database holds a search thread and a connection rather than one of
+ * Tomcat's request threads.<br>
+ * The pool and its queue are bounded by app.search.async; a search that finds both full fails at once with
+ * SearchUnavailableException instead of queueing without end. The deadline of a search is app.search.async.timeout
+ * after its submission, and the future gives up at the deadline. A search still queued then is taken off the queue, or
+ * skipped if a thread already picked it up; one that started runs in a read-only transaction whose timeout is the time
+ * left until the deadline: Hibernate sets it as the query timeout of every JDBC statement, so the driver cancels a
+ * statement still running at the deadline and the connection goes back to the pool.<br>
+ * Rejections and timeouts are counted as video.search.async.failures{reason}; the pool is published as the executor.*
+ * metrics tagged name=video.search.async.
+ */
+@Component
+class VideoSearchExecutor {
+
+  private final PlatformTransactionManager transactionManager;
+  private final AsyncSearchConfig config;
+  private final ThreadPoolExecutor executor;
+  private final Counter rejected;
+  private final Counter timedOut;
+
+  VideoSearchExecutor(PlatformTransactionManager transactionManager, AsyncSearchConfig config,
+    MeterRegistry meterRegistry) {
+    this.transactionManager = transactionManager;
+    this.config = config;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(config.threads(), config.threads(), 0, TimeUnit.MILLISECONDS, //
+      new ArrayBlockingQueue<>(config.queueCapacity()), //
+      runnable -> {
+        Thread thread = new Thread(runnable, "video-search-async-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }, //
+      new ThreadPoolExecutor.AbortPolicy());
+    new ExecutorServiceMetrics(executor, "video.search.async", List.of()).bindTo(meterRegistry);
+    this.rejected = failures(meterRegistry, "rejected");
+    this.timedOut = failures(meterRegistry, "timeout");
+  }
+
+  /**
+   * @return a future completed with the result of the search, or failed with SearchUnavailableException when the pool
+   * is saturated or the search overran app.search.async.timeout. Other failures of the search are passed on as is.
+   */
+  <T> CompletableFuture<T> submit(Supplier<T> search) {
+    long deadline = System.nanoTime() + config.timeout().toNanos();
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Runnable task = () -> {
+      // Gave up while the search was queued: the caller has its answer already, so do not take a connection
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setTimeout(VideoSearchFanOut.secondsLeft(deadline));
+        result.complete(readOnlyTransaction.execute(status -> search.get()));
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    };
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      return CompletableFuture.failedFuture(new SearchUnavailableException("Too many searches in progress", e));
+    }
+    return result //
+      .orTimeout(config.timeout().toMillis(), TimeUnit.MILLISECONDS) //
+      .exceptionallyCompose(failure -> {
+        if (failure instanceof TimeoutException) {
+          executor.remove(task);
+        }
+        return CompletableFuture.failedFuture(translate(failure));
+      });
+  }
+
+  private Throwable translate(Throwable failure) {
+    Throwable cause = failure instanceof CompletionException && failure.getCause() != null //
+      ? failure.getCause() //
+      : failure;
+    for (Throwable t = cause; t != null; t = t.getCause()) {
+      if (t instanceof TimeoutException || t instanceof SQLTimeoutException || t instanceof QueryTimeoutException //
+        || t instanceof TransactionTimedOutException || t instanceof jakarta.persistence.QueryTimeoutException) {
+        timedOut.increment();
+        return new SearchUnavailableException("Search took longer than " + config.timeout(), cause);
+      }
+    }
+    return cause;
+  }
+
+  private static Counter failures(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("video.search.async.failures") //
+      .description("Asynchronous searches that were turned away or timed out") //
+      .tag("reason", reason) //
+      .register(meterRegistry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,138 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the OR branch of a multi-field search as two single-column lookups in parallel, instead of one
+ * findByNameContainsOrDescriptionContainsAllIgnoreCase query whose OR keeps the database from using an index on
+ * either column.<br>
+ * Each lookup runs in its own read-only transaction, and so on its own connection, on a bounded pool. The results are
+ * merged and de-duplicated by id. The search waits at most app.search.fan-out.deadline for both.<br>
+ * The transaction timeout of a lookup is the time left to that deadline when it starts, which Hibernate passes on as
+ * the JDBC query timeout, so the driver cancels a statement still running at the deadline and frees its connection.
+ * A lookup the full pool turns away, or one still queued or running at the deadline, is left out and the answer is
+ * flagged partial; those answers are counted as video.search.fan-out.partial.
+ */
+@Component
+class VideoSearchFanOut {
+
+  /**
+   * Queued lookups per thread before further lookups are rejected.
+   */
+  private static final int QUEUE_PER_THREAD = 16;
+
+  private final VideoRepository repository;
+  private final PlatformTransactionManager transactionManager;
+  private final FanOutConfig config;
+  private final ExecutorService executor;
+  private final Counter partialResults;
+
+  VideoSearchFanOut(VideoRepository repository, PlatformTransactionManager transactionManager, FanOutConfig config,
+    MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.transactionManager = transactionManager;
+    this.config = config;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(config.threads(), config.threads(), 0, TimeUnit.MILLISECONDS, //
+      new ArrayBlockingQueue<>(config.threads() * QUEUE_PER_THREAD), //
+      runnable -> {
+        Thread thread = new Thread(runnable, "video-search-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }, //
+      new ThreadPoolExecutor.AbortPolicy());
+    this.partialResults = Counter.builder("video.search.fan-out.partial") //
+      .description("Fan-out searches answered with partial results because the deadline passed") //
+      .register(meterRegistry);
+  }
+
+  /**
+   * Same matches as VideoService.search(VideoSearch): both fields are ORed, a blank field takes no part.
+   */
+  SearchResult search(VideoSearch videoSearch) {
+    long deadline = System.nanoTime() + config.deadline().toNanos();
+    List<Future<List<VideoEntity>>> lookups = new ArrayList<>(2);
+    boolean partial = false;
+    try {
+      if (StringUtils.hasText(videoSearch.name())) {
+        lookups.add(submit(() -> repository.findByNameContainsIgnoreCase(videoSearch.name()), deadline));
+      }
+      if (StringUtils.hasText(videoSearch.description())) {
+        lookups.add(submit(() -> repository.findByDescriptionContainsIgnoreCase(videoSearch.description()), deadline));
+      }
+    } catch (RejectedExecutionException e) {
+      partial = true; // the pool and its queue are full: answer with the lookups that got in
+    }
+    Map<Long, VideoEntity> merged = new TreeMap<>();
+    for (Future<List<VideoEntity>> lookup : lookups) {
+      try {
+        lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) //
+          .forEach(video -> merged.putIfAbsent(video.getId(), video));
+      } catch (TimeoutException e) {
+        lookup.cancel(true);
+        partial = true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        lookups.forEach(pending -> pending.cancel(true));
+        partial = true;
+        break;
+      } catch (ExecutionException e) {
+        lookups.forEach(pending -> pending.cancel(true));
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw new IllegalStateException("Search lookup failed", e.getCause());
+      }
+    }
+    if (partial) {
+      partialResults.increment();
+    }
+    return new SearchResult(new ArrayList<>(merged.values()), partial);
+  }
+
+  /**
+   * A lookup cancelled while still queued never runs; one that starts gets the time left as its transaction timeout.
+   */
+  private Future<List<VideoEntity>> submit(Supplier<List<VideoEntity>> lookup, long deadline) {
+    return executor.submit(() -> {
+      TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+      readOnlyTransaction.setReadOnly(true);
+      readOnlyTransaction.setTimeout(secondsLeft(deadline));
+      return readOnlyTransaction.execute(status -> lookup.get());
+    });
+  }
+
+  /**
+   * Transaction timeouts are whole seconds, so the time left is rounded up, to at least one second.
+   */
+  static int secondsLeft(long deadline) {
+    long nanosLeft = deadline - System.nanoTime();
+    return (int) Math.max(1, (nanosLeft + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
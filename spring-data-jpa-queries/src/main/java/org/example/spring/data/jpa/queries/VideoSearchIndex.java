@@ -0,0 +1,104 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Trigram inverted index over the name and description of every VideoEntity, the default VideoSearchEngine.
+ * It answers the same questions as the ContainsIgnoreCase custom finders, but in memory, returning the matching ids
+ * in ascending order so VideoService only has to load the hits by primary key.
+ * It is rebuilt from the repository at startup and kept current by VideoService.create() and delete().
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "index", matchIfMissing = true)
+class VideoSearchIndex implements VideoSearchEngine {
+
+  private final TrigramIndex names = new TrigramIndex();
+  private final TrigramIndex descriptions = new TrigramIndex();
+
+  void rebuild(Iterable<VideoEntity> videos) {
+    clear();
+    videos.forEach(this::add);
+  }
+
+  @Override
+  public void clear() {
+    names.clear();
+    descriptions.clear();
+  }
+
+  @Override
+  public void add(VideoEntity video) {
+    names.add(video.getId(), video.getName());
+    descriptions.add(video.getId(), video.getDescription());
+  }
+
+  @Override
+  public void remove(Long videoId) {
+    names.remove(videoId);
+    descriptions.remove(videoId);
+  }
+
+  @Override
+  public long[] findByName(String partialName) {
+    return names.search(partialName);
+  }
+
+  @Override
+  public long[] findByDescription(String partialDescription) {
+    return descriptions.search(partialDescription);
+  }
+
+  @Override
+  public long[] findByNameOrDescription(String partialName, String partialDescription) {
+    return union(names.search(partialName), descriptions.search(partialDescription));
+  }
+
+  @Override
+  public boolean contains(long id) {
+    return names.contains(id);
+  }
+
+  @Override
+  public int size() {
+    return names.size();
+  }
+
+  @Override
+  public long[] findTop(String partialName, String partialDescription, int limit) {
+    long[] nameHits = partialName == null ? new long[0] : names.search(partialName);
+    long[] descriptionHits = partialDescription == null ? new long[0] : descriptions.search(partialDescription);
+    String nameTerm = partialName == null ? null : TrigramIndex.fold(partialName);
+    String descriptionTerm = partialDescription == null ? null : TrigramIndex.fold(partialDescription);
+    TopMatches best = new TopMatches(limit);
+    for (long id : union(nameHits, descriptionHits)) {
+      best.offer(id, NAME_WEIGHT * occurrences(names.text(id), nameTerm) //
+        + occurrences(descriptions.text(id), descriptionTerm));
+    }
+    return best.ranked();
+  }
+
+  /**
+   * @return how many non-overlapping times the folded term occurs in the folded text.
+   */
+  static int occurrences(String text, String term) {
+    if (text == null || term == null || term.isEmpty()) {
+      return 0;
+    }
+    int count = 0;
+    for (int from = text.indexOf(term); from >= 0; from = text.indexOf(term, from + term.length())) {
+      count++;
+    }
+    return count;
+  }
+
+  private static long[] union(long[] left, long[] right) {
+    return LongStream.concat(Arrays.stream(left), Arrays.stream(right)) //
+      .sorted() //
+      .distinct() //
+      .toArray();
+  }
+}
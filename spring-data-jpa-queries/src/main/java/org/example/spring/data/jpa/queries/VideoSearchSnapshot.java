@@ -0,0 +1,291 @@
+package org.example.spring.data.jpa.queries;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scanning VideoSearchEngine over an immutable, columnar snapshot of every VideoEntity, enabled with
+ * app.search.engine=snapshot.<br>
+ * A snapshot is a handful of primitive arrays: the ids in ascending order, and for each video the start and length of
+ * its folded name and description inside one shared char buffer. A search scans that buffer without locks, without
+ * JPA and without allocating per video, so besides the result it leaves almost nothing for the GC.<br>
+ * Writers are serialized and publish a new snapshot atomically; a reader keeps the snapshot it started with. Adding
+ * videos with higher ids than any before (the usual case, ids come from a sequence) appends into the spare capacity
+ * of the current arrays, which older snapshots never read past their own count, so no copy is needed. Deletes and
+ * out-of-order ids copy the arrays once per call, compacting the buffer.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "snapshot")
+class VideoSearchSnapshot implements VideoSearchEngine {
+
+  private static final long[] NO_IDS = new long[0];
+
+  /**
+   * Length recorded for a null name or description, which matches nothing (like a NULL column under LIKE).
+   */
+  private static final int ABSENT = -1;
+
+  private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+  @Override
+  public synchronized void clear() {
+    current.set(Snapshot.EMPTY);
+  }
+
+  @Override
+  public void add(VideoEntity video) {
+    addAll(List.of(video));
+  }
+
+  /**
+   * Publishes the whole chunk as one new snapshot.
+   */
+  @Override
+  public synchronized void addAll(List<VideoEntity> videos) {
+    if (videos.isEmpty()) {
+      return;
+    }
+    VideoEntity[] sorted = videos.toArray(VideoEntity[]::new);
+    Arrays.sort(sorted, Comparator.comparing(VideoEntity::getId));
+    Snapshot base = current.get();
+    boolean appendable = base.count == 0 || sorted[0].getId() > base.ids[base.count - 1];
+    for (int i = 1; i < sorted.length && appendable; i++) {
+      appendable = sorted[i].getId() > sorted[i - 1].getId();
+    }
+    current.set(appendable ? base.append(sorted) : base.merge(sorted, null));
+  }
+
+  @Override
+  public synchronized void remove(Long videoId) {
+    Snapshot base = current.get();
+    if (base.indexOf(videoId) >= 0) {
+      current.set(base.merge(new VideoEntity[0], videoId));
+    }
+  }
+
+  @Override
+  public long[] findByName(String partialName) {
+    return current.get().search(TrigramIndex.fold(partialName).toCharArray(), 0);
+  }
+
+  @Override
+  public long[] findByDescription(String partialDescription) {
+    return current.get().search(TrigramIndex.fold(partialDescription).toCharArray(), 1);
+  }
+
+  @Override
+  public long[] findByNameOrDescription(String partialName, String partialDescription) {
+    Snapshot snapshot = current.get();
+    char[] name = TrigramIndex.fold(partialName).toCharArray();
+    char[] description = TrigramIndex.fold(partialDescription).toCharArray();
+    long[] matches = new long[snapshot.count];
+    int found = 0;
+    for (int i = 0; i < snapshot.count; i++) {
+      if (snapshot.indexOf(2 * i, name, 0) >= 0 || snapshot.indexOf(2 * i + 1, description, 0) >= 0) {
+        matches[found++] = snapshot.ids[i];
+      }
+    }
+    return Arrays.copyOf(matches, found);
+  }
+
+  @Override
+  public long[] findTop(String partialName, String partialDescription, int limit) {
+    Snapshot snapshot = current.get();
+    char[] name = partialName == null ? null : TrigramIndex.fold(partialName).toCharArray();
+    char[] description = partialDescription == null ? null : TrigramIndex.fold(partialDescription).toCharArray();
+    TopMatches best = new TopMatches(limit);
+    for (int i = 0; i < snapshot.count; i++) {
+      int nameHits = name == null ? ABSENT : snapshot.occurrences(2 * i, name);
+      int descriptionHits = description == null ? ABSENT : snapshot.occurrences(2 * i + 1, description);
+      if (nameHits != ABSENT || descriptionHits != ABSENT) {
+        best.offer(snapshot.ids[i], NAME_WEIGHT * Math.max(nameHits, 0) + Math.max(descriptionHits, 0));
+      }
+    }
+    return best.ranked();
+  }
+
+  @Override
+  public boolean contains(long id) {
+    return current.get().indexOf(id) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return current.get().count;
+  }
+
+  /**
+   * @return the chars held by the current snapshot, including the spare capacity kept for appends.
+   */
+  int bufferCapacity() {
+    return current.get().chars.length;
+  }
+
+  /**
+   * One published state of the engine. Field f (0 = name, 1 = description) of the video at index i lives at
+   * {@code chars[starts[2 * i + f] .. starts[2 * i + f] + lengths[2 * i + f])}. Only the first {@code count}
+   * videos and {@code used} chars belong to this snapshot; what lies past them may be filled in by later ones.
+   */
+  private record Snapshot(long[] ids, int[] starts, int[] lengths, char[] chars, int count, int used) {
+
+    static final Snapshot EMPTY = new Snapshot(NO_IDS, new int[0], new int[0], new char[0], 0, 0);
+
+    /**
+     * Writes the videos after the last one, growing the arrays (by half again) only when the spare capacity runs out.
+     */
+    Snapshot append(VideoEntity[] videos) {
+      int newCount = count + videos.length;
+      int newUsed = used;
+      for (VideoEntity video : videos) {
+        newUsed += length(video.getName()) + length(video.getDescription());
+      }
+      long[] ids = grow(this.ids, newCount);
+      int[] starts = grow(this.starts, 2 * newCount);
+      int[] lengths = grow(this.lengths, 2 * newCount);
+      char[] chars = grow(this.chars, newUsed);
+      int at = used;
+      for (int i = 0; i < videos.length; i++) {
+        int slot = count + i;
+        ids[slot] = videos[i].getId();
+        at = put(videos[i].getName(), chars, at, starts, lengths, 2 * slot);
+        at = put(videos[i].getDescription(), chars, at, starts, lengths, 2 * slot + 1);
+      }
+      return new Snapshot(ids, starts, lengths, chars, newCount, newUsed);
+    }
+
+    /**
+     * Copies this snapshot into fresh, exactly sized arrays, leaving out {@code removed} and any video that is
+     * re-added, and slotting the (sorted) added videos in by id.
+     */
+    Snapshot merge(VideoEntity[] added, Long removed) {
+      long[] ids = new long[count + added.length];
+      int[] starts = new int[2 * ids.length];
+      int[] lengths = new int[2 * ids.length];
+      int capacity = 0;
+      for (int i = 0; i < count; i++) {
+        capacity += Math.max(this.lengths[2 * i], 0) + Math.max(this.lengths[2 * i + 1], 0);
+      }
+      for (VideoEntity video : added) {
+        capacity += length(video.getName()) + length(video.getDescription());
+      }
+      char[] chars = new char[capacity];
+      int kept = 0;
+      int at = 0;
+      int next = 0;
+      for (int i = 0; i <= count; i++) {
+        long id = i < count ? this.ids[i] : Long.MAX_VALUE;
+        while (next < added.length && added[next].getId() <= id) {
+          VideoEntity video = added[next++];
+          if (next < added.length && added[next].getId().equals(video.getId())) {
+            continue; // the same video twice in one chunk: the last copy wins
+          }
+          ids[kept] = video.getId();
+          at = put(video.getName(), chars, at, starts, lengths, 2 * kept);
+          at = put(video.getDescription(), chars, at, starts, lengths, 2 * kept + 1);
+          kept++;
+        }
+        boolean replaced = kept > 0 && ids[kept - 1] == id;
+        if (i == count || replaced || Long.valueOf(id).equals(removed)) {
+          continue;
+        }
+        ids[kept] = id;
+        for (int field = 0; field < 2; field++) {
+          int length = this.lengths[2 * i + field];
+          starts[2 * kept + field] = at;
+          lengths[2 * kept + field] = length;
+          if (length > 0) {
+            System.arraycopy(this.chars, this.starts[2 * i + field], chars, at, length);
+            at += length;
+          }
+        }
+        kept++;
+      }
+      return new Snapshot(ids, starts, lengths, chars, kept, at);
+    }
+
+    int indexOf(long id) {
+      return Arrays.binarySearch(ids, 0, count, id);
+    }
+
+    /**
+     * @return ids of the videos whose field contains the folded term, in ascending order.
+     */
+    long[] search(char[] term, int field) {
+      long[] matches = new long[count];
+      int found = 0;
+      for (int i = 0; i < count; i++) {
+        if (indexOf(2 * i + field, term, 0) >= 0) {
+          matches[found++] = ids[i];
+        }
+      }
+      return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * @return how many non-overlapping times the folded term occurs in the entry, or ABSENT if it does not at all.
+     * An empty term is found (zero times) in any text, as in VideoSearchIndex.
+     */
+    int occurrences(int entry, char[] term) {
+      int from = indexOf(entry, term, 0);
+      if (from < 0 || term.length == 0) {
+        return from < 0 ? ABSENT : 0;
+      }
+      int hits = 0;
+      for (; from >= 0; from = indexOf(entry, term, from + term.length)) {
+        hits++;
+      }
+      return hits;
+    }
+
+    /**
+     * @return the offset of the term inside the entry at or after {@code from}, or -1 when it is not there.
+     */
+    int indexOf(int entry, char[] term, int from) {
+      int start = starts[entry];
+      int last = start + lengths[entry] - term.length;
+      candidates:
+      for (int at = start + from; at <= last; at++) {
+        for (int k = 0; k < term.length; k++) {
+          if (chars[at + k] != term[k]) {
+            continue candidates;
+          }
+        }
+        return at - start;
+      }
+      return -1;
+    }
+
+    private static int put(String text, char[] chars, int at, int[] starts, int[] lengths, int entry) {
+      starts[entry] = at;
+      if (text == null) {
+        lengths[entry] = ABSENT;
+        return at;
+      }
+      String folded = TrigramIndex.fold(text);
+      folded.getChars(0, folded.length(), chars, at);
+      lengths[entry] = folded.length();
+      return at + folded.length();
+    }
+
+    private static int length(String text) {
+      return text == null ? 0 : text.length();
+    }
+
+    private static long[] grow(long[] array, int needed) {
+      return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+    }
+
+    private static int[] grow(int[] array, int needed) {
+      return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+    }
+
+    private static char[] grow(char[] array, int needed) {
+      return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+    }
+  }
+}
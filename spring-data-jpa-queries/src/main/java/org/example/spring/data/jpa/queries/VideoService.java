@@ -1,74 +1,432 @@
 package org.example.spring.data.jpa.queries;
 
 import jakarta.annotation.PostConstruct;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 
 @Service
 public class VideoService {
 
+  private static final Logger log = LoggerFactory.getLogger(VideoService.class);
+
+  /**
+   * Upper bound on the ids bound into a single primary key lookup, well below the bind parameter limits of our databases.
+   */
+  private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+  /**
+   * Largest page GET /api/videos will serve, whatever limit is asked for.
+   */
+  static final int MAX_PAGE_SIZE = 1000;
+
+  /**
+   * Most autocomplete suggestions returned for one prefix.
+   */
+  static final int MAX_SUGGESTIONS = 100;
+
+  /**
+   * How many streamed videos may pile up in the persistence context before it is cleared.
+   */
+  private static final int STREAM_CLEAR_INTERVAL = 1000;
+
   private final VideoRepository repository;
+  private final VideoPopularityRepository popularityRepository;
+  private final VideoSearchEngine searchEngine;
+  private final VideoSearchCache searchCache;
+  private final VideoSearchFanOut searchFanOut;
+  private final VideoSearchExecutor searchExecutor;
+  private final VideoNameTrie nameTrie;
+  private final VideoCounterBuffer counterBuffer;
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+  private final TransactionTemplate transaction;
+  private final BatchConfig batchConfig;
 
-  public VideoService(VideoRepository repository) {
+  public VideoService(VideoRepository repository, VideoPopularityRepository popularityRepository,
+    VideoSearchEngine searchEngine, VideoSearchCache searchCache, VideoSearchFanOut searchFanOut,
+    VideoSearchExecutor searchExecutor, VideoNameTrie nameTrie, VideoCounterBuffer counterBuffer, EntityManager entityManager,
+    PlatformTransactionManager transactionManager, BatchConfig batchConfig) {
     this.repository = repository;
+    this.popularityRepository = popularityRepository;
+    this.searchEngine = searchEngine;
+    this.searchCache = searchCache;
+    this.searchFanOut = searchFanOut;
+    this.searchExecutor = searchExecutor;
+    this.nameTrie = nameTrie;
+    this.counterBuffer = counterBuffer;
+    this.entityManager = entityManager;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.batchConfig = batchConfig;
   }
 
   public List<VideoEntity> getVideos() {
     return repository.findAll();
   }
 
+  /**
+   * Read-only projection variant of {@link #getVideos()} for rendering: only id, name and description are selected,
+   * and no managed entities are created.
+   */
+  public List<VideoSummary> getVideoSummaries() {
+    return repository.findAllProjectedBy();
+  }
+
+  /**
+   * Seeks to the page of videos following the cursor instead of skipping rows with OFFSET.
+   * Fetches one row more than the page size to learn whether there is a next page without a count query.
+   * @param after the id of the last video already seen, or null to start at the beginning.
+   * @param limit the page size, capped at {@link #MAX_PAGE_SIZE}.
+   */
+  public VideoPage getVideos(Long after, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<VideoEntity> videos = repository.findByIdGreaterThanOrderByIdAsc( //
+      after == null ? Long.MIN_VALUE : after, //
+      PageRequest.of(0, pageSize + 1));
+    if (videos.size() <= pageSize) {
+      return new VideoPage(videos, null);
+    }
+    List<VideoEntity> page = videos.subList(0, pageSize);
+    return new VideoPage(page, page.get(pageSize - 1).getId());
+  }
+
+  /**
+   * Hands every video, in id order, to the action as it is read from a forward-only cursor, so the whole table is never on the heap.
+   * The persistence context is cleared every {@link #STREAM_CLEAR_INTERVAL} videos; the action must not hold on to them.
+   * Runs in its own read-only transaction, which keeps the connection and cursor open until the last row.
+   * @return how many videos were streamed.
+   */
+  public long forEachVideo(Consumer<VideoEntity> action) {
+    return forEachVideo(readOnlyTransaction, action);
+  }
+
+  private long forEachVideo(TransactionTemplate transactionTemplate, Consumer<VideoEntity> action) {
+    Long count = transactionTemplate.execute(status -> {
+      long streamed = 0;
+      try (Stream<VideoEntity> videos = repository.streamAllByOrderByIdAsc()) {
+        for (VideoEntity video : (Iterable<VideoEntity>) videos::iterator) {
+          action.accept(video);
+          if (++streamed % STREAM_CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+          }
+        }
+      }
+      entityManager.clear();
+      return streamed;
+    });
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Saves the video together with its zeroed row in the video_popularity projection, in one transaction, and adds it to
+   * the in-memory structures once that commits.
+   */
   public VideoEntity create(NewVideo newVideo) {
-    return repository.saveAndFlush(new VideoEntity(newVideo.name(), newVideo.description()));
+    return transaction.execute(status -> {
+      VideoEntity saved = repository.saveAndFlush(new VideoEntity(newVideo.name(), newVideo.description()));
+      popularityRepository.saveAndFlush(new VideoPopularity(saved));
+      afterCommit(() -> {
+        searchEngine.add(saved);
+        nameTrie.add(saved.getName());
+        searchCache.invalidate(saved);
+      });
+      return saved;
+    });
+  }
+
+  /**
+   * Deletes the video and its video_popularity row in one transaction, then drops it from the in-memory structures once
+   * that commits.
+   * @throws VideoNotFoundException if there is no such video.
+   */
+  public void delete(Long videoId) {
+    transaction.executeWithoutResult(status -> {
+      VideoEntity video = repository.findById(videoId) //
+        .orElseThrow(() -> new VideoNotFoundException(videoId));
+      popularityRepository.deleteById(videoId);
+      repository.delete(video);
+      afterCommit(() -> {
+        searchEngine.remove(videoId);
+        nameTrie.remove(video.getName());
+        searchCache.invalidate(video);
+        counterBuffer.discard(videoId);
+      });
+    });
+  }
+
+  /**
+   * Autocomplete for video names.
+   * @return up to {@code limit} distinct names starting with the prefix, ignoring case, in alphabetical order.
+   */
+  public List<String> suggest(String prefix, int limit) {
+    if (!StringUtils.hasText(prefix)) {
+      return Collections.emptyList();
+    }
+    return nameTrie.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+  }
+
+  /**
+   * Persists many videos in chunks of app.batch.chunk-size, one transaction per chunk, instead of one flush per video.
+   * Each chunk is flushed in one go, so Hibernate groups the inserts into JDBC batches (hibernate.jdbc.batch_size, with
+   * hibernate.order_inserts) and takes the ids from the pooled sequence. The persistence context is cleared after every
+   * chunk so memory stays bounded by the chunk size.
+   * @return how many videos were created, and how fast.
+   */
+  public BatchResult createAll(List<NewVideo> newVideos) {
+    long start = System.nanoTime();
+    for (int from = 0; from < newVideos.size(); from += batchConfig.chunkSize()) {
+      createChunk(newVideos.subList(from, Math.min(newVideos.size(), from + batchConfig.chunkSize())));
+    }
+    return BatchResult.of(newVideos.size(), System.nanoTime() - start);
+  }
+
+  /**
+   * Persists one chunk of a bulk write in its own transaction, then adds it to the in-memory structures once that
+   * commits.
+   */
+  void createChunk(List<NewVideo> chunk) {
+    transaction.executeWithoutResult(status -> {
+      List<VideoEntity> created = persistChunk(chunk);
+      afterCommit(() -> {
+        searchEngine.addAll(created);
+        for (VideoEntity video : created) {
+          nameTrie.add(video.getName());
+        }
+        searchCache.invalidateAll(); // a whole chunk touches too many terms to be worth sweeping video by video
+      });
+    });
+  }
+
+  private List<VideoEntity> persistChunk(List<NewVideo> chunk) {
+    List<VideoEntity> videos = new ArrayList<>(chunk.size());
+    for (NewVideo newVideo : chunk) {
+      VideoEntity video = new VideoEntity(newVideo.name(), newVideo.description());
+      entityManager.persist(video);
+      entityManager.persist(new VideoPopularity(video));
+      videos.add(video);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    return videos;
+  }
+
+  /**
+   * Counts one view of the video. The event only touches an in-memory counter; VideoCounterBuffer writes the
+   * accumulated views to video_popularity in its next batched flush.
+   * @throws VideoNotFoundException if there is no such video.
+   */
+  public void recordView(Long videoId) {
+    counterBuffer.addView(existingVideoId(videoId));
+  }
+
+  /**
+   * Counts one like of the video, buffered the same way as {@link #recordView(Long)}.
+   * @throws VideoNotFoundException if there is no such video.
+   */
+  public void recordLike(Long videoId) {
+    counterBuffer.addLike(existingVideoId(videoId));
+  }
+
+  /**
+   * Checks the id against the search engine, which knows every video, so recording an event never reads the database.
+   */
+  private long existingVideoId(Long videoId) {
+    if (videoId == null || !searchEngine.contains(videoId)) {
+      throw new VideoNotFoundException(videoId);
+    }
+    return videoId;
+  }
+
+  public List<VideoEntity> findVideosThatArentPopular(Long minimumViews, Long minimumLikes) {
+    return repository.findVideosThatArentPopular(minimumViews, minimumLikes);
   }
 
   /**
+   * Resolves the search against the in-memory VideoSearchEngine instead of running LIKE '%x%' scans, then loads only the hits by primary key.
+   * The matches are exactly those of the corresponding ContainsIgnoreCase custom finders on VideoRepository.
    * @param videoSearch containing user entered data containing both name and description details, only the name field, or only the description field
-   * @return list of VideoEntity objects
+   * @return list of VideoEntity objects, ordered by id
    */
   public List<VideoEntity> search(VideoSearch videoSearch) {
+    return findAllById(matches(videoSearch));
+  }
+
+  /**
+   * Asynchronous variant of {@link #search(VideoSearch)} that runs on the bounded VideoSearchExecutor pool, so the
+   * calling thread is free while the database works.
+   * @return the matches ordered by id, or a future failed with SearchUnavailableException when the pool is saturated or
+   * the search overran app.search.async.timeout (its JDBC statement is cancelled then).
+   */
+  public CompletableFuture<List<VideoEntity>> searchAsync(VideoSearch videoSearch) {
+    return searchExecutor.submit(() -> search(videoSearch));
+  }
+
+  /**
+   * Matches the value against the name or the description, the same as the Query By Example this method used to run:
+   * a probe with both fields set, an Or (matchingAny) over them, ignoring case with a CONTAINING match.
+   * The candidates come from the VideoSearchEngine, so only the hits are loaded from the database.
+   * If the value attribute is empty, the probe would have been left empty and every video matches.
+   * @param search the UniversalSearch DTO.
+   * @return List<VideoEntity> the matching videos, ordered by id.
+   */
+  public List<VideoEntity> search(UniversalSearch search) {
+    if (!StringUtils.hasText(search.value())) {
+      return repository.findAll(); // an empty probe has no criteria to match on
+    }
+    return findAllById(searchEngine.findByNameOrDescription(search.value(), search.value()));
+  }
+
+  /**
+   * Database variant of {@link #search(VideoSearch)} that runs the name and description lookups in parallel, on
+   * separate connections, and merges them by id.
+   * @return the matches ordered by id, flagged partial if app.search.fan-out.deadline cut a lookup short.
+   */
+  public SearchResult searchFanOut(VideoSearch videoSearch) {
+    return searchFanOut.search(videoSearch);
+  }
+
+  /**
+   * Read-only projection variant of {@link #search(VideoSearch)}: the same matches, loaded as VideoSummary records.
+   */
+  public List<VideoSummary> searchSummaries(VideoSearch videoSearch) {
+    return findSummariesById(matches(videoSearch));
+  }
+
+  /**
+   * Read-only projection variant of {@link #search(UniversalSearch)}. Results are served from the VideoSearchCache,
+   * which create and delete keep in step with the catalog.
+   */
+  public List<VideoSummary> searchSummaries(UniversalSearch search) {
+    return searchCache.get(search, VideoSearchCache.UNLIMITED, () -> {
+      if (!StringUtils.hasText(search.value())) {
+        return repository.findAllProjectedBy();
+      }
+      return findSummariesById(searchEngine.findByNameOrDescription(search.value(), search.value()));
+    });
+  }
+
+  /**
+   * Ranked variant of {@link #searchSummaries(VideoSearch)}: the same matches, but only the best {@code limit} of them
+   * by relevance, best first. Only those are loaded, so the cost of rendering no longer grows with the match count.
+   */
+  public List<VideoSummary> searchRankedSummaries(VideoSearch videoSearch, int limit) {
+    return findSummariesById(topMatches(videoSearch, limit));
+  }
+
+  /**
+   * Ranked variant of {@link #searchSummaries(UniversalSearch)}, scoring the value against both fields, and cached the
+   * same way. Without a value every video matches with the same score, so the first {@code limit} by id are returned.
+   */
+  public List<VideoSummary> searchRankedSummaries(UniversalSearch search, int limit) {
+    return searchCache.get(search, limit, () -> {
+      if (!StringUtils.hasText(search.value())) {
+        return repository.findAllProjectedBy(PageRequest.of(0, limit, Sort.by("id")));
+      }
+      return findSummariesById(searchEngine.findTop(search.value(), search.value(), limit));
+    });
+  }
+
+  /**
+   * @return the ids matching the VideoSearch, in ascending order.
+   */
+  private long[] matches(VideoSearch videoSearch) {
     // Checks that both fields of the VideoSearch record contain actual text and are neither empty nor null using Spring Framework utility class, StringUtils
     if (StringUtils.hasText(videoSearch.name()) //
       && StringUtils.hasText(videoSearch.description())) {
-      return repository //
-        .findByNameContainsOrDescriptionContainsAllIgnoreCase( // invokes a custom finder that matches the name field and the description field, but with the Contains qualifiers and the AllIgnoreCase modifier
+      return searchEngine //
+        .findByNameOrDescription( // same matches as findByNameContainsOrDescriptionContainsAllIgnoreCase
           videoSearch.name(), videoSearch.description());
     }
-    // If either field is empty (or null) check if the name field has text. If so, invoke the custom finder matching on name with the Contains and IgnoreCase qualifiers
+    // If either field is empty (or null) check if the name field has text. If so, match on name, same as findByNameContainsIgnoreCase
     if (StringUtils.hasText(videoSearch.name())) {
-      return repository.findByNameContainsIgnoreCase(videoSearch.name());
+      return searchEngine.findByName(videoSearch.name());
     }
-    // Also, check whether the description field has text. If so, use the custom finder that matches on description with Contains and IgnoreCase qualifiers.
+    // Also, check whether the description field has text. If so, match on description, same as findByDescriptionContainsIgnoreCase
     if (StringUtils.hasText(videoSearch.description())) {
-      return repository.findByDescriptionContainsIgnoreCase(videoSearch.description());
+      return searchEngine.findByDescription(videoSearch.description());
     }
-    return Collections.emptyList();
+    return new long[0];
   }
 
   /**
-   * Creates a probe based on the same domain type as the repository and copies the value attribute into the probe’s Name and Description fields, but only if there is text. If the value attribute is empty, the fields are left null.
-   * Assembles an Example<VideoEntity> using and in addition to providing the probe, also provides additional criteria of ignoring the casing and applying a CONTAINING match, which puts wildcards on both sides of every input.
-   * Matches any, an Or operation, since the same criteria is put in all fields.
-   * @param search the UniversalSearch DTO.
-   * @return List<VideoEntity> the result finding all using this example.
+   * @return the ids of the best {@code limit} matches of the VideoSearch, best first. Blank fields take no part.
    */
-  public List<VideoEntity> search(UniversalSearch search) {
-    VideoEntity probe = new VideoEntity();
-    if (StringUtils.hasText(search.value())) {
-      probe.setName(search.value());
-      probe.setDescription(search.value());
+  private long[] topMatches(VideoSearch videoSearch, int limit) {
+    String name = StringUtils.hasText(videoSearch.name()) ? videoSearch.name() : null;
+    String description = StringUtils.hasText(videoSearch.description()) ? videoSearch.description() : null;
+    if (name == null && description == null) {
+      return new long[0];
     }
-    Example<VideoEntity> example = Example.of(probe, //
-      ExampleMatcher.matchingAny() //
-        .withIgnoreCase() //
-        .withStringMatcher(StringMatcher.CONTAINING));
-    return repository.findAll(example);
+    return searchEngine.findTop(name, description, limit);
+  }
+
+  /**
+   * Loads the given videos by primary key, in chunks, and returns them in the order of the ids.
+   * The index hands out ids in ascending order, which is the order the custom finders return rows in when there is no ORDER BY.
+   */
+  private List<VideoEntity> findAllById(long[] ids) {
+    return loadInOrder(ids, this::multiLoad, VideoEntity::getId);
+  }
+
+  /**
+   * Loads by primary key through Session.byMultipleIds(), which takes the videos found in the second-level cache from
+   * there and only selects the rest from the database.
+   */
+  private List<VideoEntity> multiLoad(List<Long> ids) {
+    return readOnlyTransaction.execute(status -> entityManager.unwrap(Session.class) //
+      .byMultipleIds(VideoEntity.class) //
+      .multiLoad(ids) //
+      .stream() //
+      .filter(Objects::nonNull) // deleted since the index was consulted
+      .toList());
+  }
+
+  /**
+   * Projection counterpart of {@link #findAllById(long[])}.
+   */
+  private List<VideoSummary> findSummariesById(long[] ids) {
+    return loadInOrder(ids, repository::findSummariesByIdIn, VideoSummary::id);
+  }
+
+  private <T> List<T> loadInOrder(long[] ids, Function<List<Long>, List<T>> finder, Function<T, Long> idOf) {
+    Map<Long, T> byId = new HashMap<>(ids.length * 2);
+    for (int from = 0; from < ids.length; from += LOOKUP_CHUNK_SIZE) {
+      long[] chunk = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + LOOKUP_CHUNK_SIZE));
+      finder.apply(Arrays.stream(chunk).boxed().toList()) //
+        .forEach(video -> byId.put(idOf.apply(video), video));
+    }
+    List<T> videos = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      T video = byId.get(id);
+      if (video != null) {
+        videos.add(video);
+      }
+    }
+    return videos;
   }
 
   @PostConstruct
@@ -79,5 +437,29 @@ public class VideoService {
       "As a pro developer, never ever EVER do this to your code. Because you'll ultimately be doing it to YOURSELF!"));
     repository.save(new VideoEntity("SECRETS to fix BROKEN CODE!",
       "Discover ways to not only debug your code, but to regain your confidence and get back in the game as a software developer."));
+    transaction.executeWithoutResult(status -> popularityRepository.backfill());
+    searchEngine.clear();
+    nameTrie.clear();
+    searchCache.invalidateAll();
+    // read-write, so it runs on the primary and sees the videos just written, whatever the lag of the replicas
+    long indexed = forEachVideo(transaction, video -> {
+      searchEngine.add(video);
+      nameTrie.add(video.getName());
+    });
+    log.info("Indexed {} videos, name trie uses ~{} bytes", indexed, nameTrie.estimatedBytes());
+  }
+
+  /**
+   * Runs the update of the in-memory structures once the surrounding transaction commits, so a rollback, including
+   * that of an outer transaction the write joined, never leaves them pointing at rows that do not exist.
+   */
+  private static void afterCommit(Runnable update) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        update.run();
+      }
+    });
   }
 }
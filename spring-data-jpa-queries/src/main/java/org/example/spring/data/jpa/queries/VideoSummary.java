@@ -0,0 +1,9 @@
+package org.example.spring.data.jpa.queries;
+
+/**
+ * Read-only DTO projection of a video with just the columns index.mustache renders.
+ * Spring Data selects only these columns into the record's constructor, so no managed VideoEntity is created,
+ * tracked by the persistence context or dirty-checked.
+ */
+record VideoSummary(Long id, String name, String description) {
+}
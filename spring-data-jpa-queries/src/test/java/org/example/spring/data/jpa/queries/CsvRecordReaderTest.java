@@ -0,0 +1,53 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+  // Quoted fields keep their commas, doubled quotes and line breaks; CRLF and LF both end a record
+  @Test
+  void nextShouldParseQuotedFieldsAcrossLines() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader(
+      "name,description\r\n\"Hello, \"\"World\"\"\",\"two\nlines\"\nplain,\n"), 100);
+
+    assertThat(reader.next()).containsExactly("name", "description");
+    assertThat(reader.next()).containsExactly("Hello, \"World\"", "two\nlines");
+    assertThat(reader.line()).isEqualTo(4);
+    assertThat(reader.next()).containsExactly("plain", "");
+    assertThat(reader.next()).isNull();
+  }
+
+  // A broken record is reported with its line and the reader carries on with the next one
+  @Test
+  void nextShouldSkipPastAMalformedRecord() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("ok,1\n\"bad\"x,2\nok,3"), 100);
+
+    assertThat(reader.next()).containsExactly("ok", "1");
+    assertThatThrownBy(reader::next) //
+      .isInstanceOf(CsvRecordReader.MalformedRecordException.class) //
+      .hasMessageStartingWith("Line 2");
+    assertThat(reader.next()).containsExactly("ok", "3");
+    assertThat(reader.next()).isNull();
+  }
+
+  // An unterminated quote would take in the rest of the input: reading stops at the limit and resumes on the next line
+  @Test
+  void nextShouldRejectRecordsOverTheMaximumLength() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader(
+      "ok,1\n0123456789,0123456789\n\"never closed,\nlong line one\nline two\n,,,,,,,,,,,,,\nok,2"), 12);
+
+    assertThat(reader.next()).containsExactly("ok", "1");
+    assertThatThrownBy(reader::next).hasMessage("Line 2: longer than 12 characters");
+    assertThatThrownBy(reader::next).hasMessage("Line 3: longer than 12 characters");
+    assertThatThrownBy(reader::next).hasMessage("Line 4: longer than 12 characters");
+    assertThat(reader.next()).containsExactly("line two");
+    assertThatThrownBy(reader::next).hasMessage("Line 6: longer than 12 characters");
+    assertThat(reader.next()).containsExactly("ok", "2");
+    assertThat(reader.next()).isNull();
+  }
+}
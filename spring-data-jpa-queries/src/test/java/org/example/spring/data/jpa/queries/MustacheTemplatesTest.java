@@ -0,0 +1,47 @@
+package org.example.spring.data.jpa.queries;
+
+import com.samskivert.mustache.Mustache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mustache.MustacheProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MustacheTemplatesTest {
+
+  static final String INDEX = "classpath:/templates/index.mustache";
+
+  // index.mustache is compiled at startup, and the same Template serves every render
+  @Test
+  void templatesShouldBeCompiledOnceAtStartup() {
+    MustacheTemplates templates = templates(true);
+
+    assertThat(templates.size()).isEqualTo(1);
+    assertThat(templates.template(INDEX)).isSameAs(templates.template(INDEX));
+  }
+
+  // Streaming and buffering write the same page; streaming sizes the response buffer to one chunk
+  @Test
+  void renderShouldWriteThePageEitherWay() throws Exception {
+    Map<String, Object> model = Map.of("videos", List.of(new VideoSummary(1L, "SECRETS to fix BROKEN CODE!", "")));
+    MockHttpServletResponse streamed = new MockHttpServletResponse();
+    MockHttpServletResponse buffered = new MockHttpServletResponse();
+
+    templates(true).render(INDEX, model, streamed);
+    templates(false).render(INDEX, model, buffered);
+
+    assertThat(streamed.getContentAsString()).contains("<li>SECRETS to fix BROKEN CODE!</li>") //
+      .isEqualTo(buffered.getContentAsString());
+    assertThat(streamed.getBufferSize()).isEqualTo(1024);
+  }
+
+  private static MustacheTemplates templates(boolean stream) {
+    return new MustacheTemplates(Mustache.compiler(), new DefaultResourceLoader(), new MustacheProperties(),
+      new TemplateConfig(stream, DataSize.ofKilobytes(1)));
+  }
+}
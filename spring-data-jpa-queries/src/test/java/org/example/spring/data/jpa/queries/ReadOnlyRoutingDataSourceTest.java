@@ -0,0 +1,82 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the application on two in-memory HSQLDB databases. Only the primary gets the schema from Hibernate; the test
+ * gives the replica its own table and a video of its own, so every read shows which database answered it.
+ */
+@SpringBootTest(properties = { //
+  "spring.datasource.url=jdbc:hsqldb:mem:primary", //
+  "app.datasource.replicas[0].url=jdbc:hsqldb:mem:replica"})
+class ReadOnlyRoutingDataSourceTest {
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  JdbcTemplate primary = jdbc("jdbc:hsqldb:mem:primary");
+  JdbcTemplate replica = jdbc("jdbc:hsqldb:mem:replica");
+
+  @BeforeEach
+  void setUp() {
+    replica.execute("drop table if exists video_entity");
+    replica.execute("create table video_entity (id bigint primary key, name varchar(255), description varchar(255))");
+    replica.update("insert into video_entity (id, name, description) values (1000, 'Replica only', 'lag')");
+  }
+
+  // Read-only finders run on the replica, writes on the primary
+  @Test
+  void readsShouldGoToTheReplicaAndWritesToThePrimary() {
+    assertThat(videoService.getVideos()).extracting(VideoEntity::getName).containsExactly("Replica only");
+
+    long primaryVideos = countVideos(primary);
+    videoService.create(new NewVideo("Written", "to the primary"));
+
+    assertThat(countVideos(primary)).isEqualTo(primaryVideos + 1);
+    assertThat(countVideos(replica)).isEqualTo(1);
+  }
+
+  // A lagging replica must not put rows the primary has moved on from back into the caches
+  @Test
+  void readsFromTheReplicaShouldNotFillTheHibernateCaches() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long puts = statistics.getSecondLevelCachePutCount() + statistics.getQueryCachePutCount();
+
+    assertThat(videoService.getVideos()).extracting(VideoEntity::getName).containsExactly("Replica only");
+    replica.update("update video_entity set name = 'Replicated later' where id = 1000");
+
+    assertThat(videoService.getVideos()).extracting(VideoEntity::getName).containsExactly("Replicated later");
+    assertThat(statistics.getSecondLevelCachePutCount() + statistics.getQueryCachePutCount()).isEqualTo(puts);
+  }
+
+  @Test
+  void everyPoolShouldReportItsOwnMetrics() {
+    assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+    assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "replica-1").gauge()).isNotNull();
+  }
+
+  private static long countVideos(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForObject("select count(*) from video_entity", Long.class);
+  }
+
+  private static JdbcTemplate jdbc(String url) {
+    return new JdbcTemplate(new SingleConnectionDataSource(url, "sa", "", true));
+  }
+}
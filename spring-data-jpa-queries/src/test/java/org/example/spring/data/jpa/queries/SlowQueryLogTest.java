@@ -0,0 +1,47 @@
+package org.example.spring.data.jpa.queries;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
+class SlowQueryLogTest {
+
+  @Mock
+  MethodInvocation invocation;
+
+  // The SQL prepared during the call is logged with the arguments it was called with
+  @Test
+  void slowCallShouldBeLoggedWithArgumentsAndSql(CapturedOutput output) throws Throwable {
+    SlowQueryLog slowQueryLog = new SlowQueryLog(new SlowQueryConfig(Duration.ZERO));
+    given(invocation.getMethod()).willReturn(VideoRepository.class.getMethod("findByNameContainsIgnoreCase", String.class));
+    given(invocation.getArguments()).willReturn(new Object[] {"code"});
+    given(invocation.proceed()).willAnswer(call -> slowQueryLog.inspect("select * from video_entity where name like ?"));
+
+    slowQueryLog.interceptor(VideoRepository.class).invoke(invocation);
+
+    assertThat(output).contains("Slow repository call VideoRepository.findByNameContainsIgnoreCase", "[code]",
+      "select * from video_entity where name like ?");
+  }
+
+  // Statements outside of a repository call are not collected
+  @Test
+  void fastCallShouldNotBeLogged(CapturedOutput output) throws Throwable {
+    SlowQueryLog slowQueryLog = new SlowQueryLog(new SlowQueryConfig(Duration.ofMinutes(1)));
+    slowQueryLog.inspect("select 1");
+    given(invocation.proceed()).willReturn(null);
+
+    slowQueryLog.interceptor(VideoRepository.class).invoke(invocation);
+
+    assertThat(output).doesNotContain("Slow repository call");
+  }
+}
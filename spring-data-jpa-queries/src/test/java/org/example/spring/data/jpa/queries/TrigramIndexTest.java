@@ -0,0 +1,73 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TrigramIndexTest {
+
+  TrigramIndex index;
+
+  // Indexes the same three names that VideoService seeds the database with
+  @BeforeEach
+  void setUp() {
+    index = new TrigramIndex();
+    index.add(1L, "Need HELP with your SPRING BOOT 3 App?");
+    index.add(2L, "Don't do THIS to your own CODE!");
+    index.add(3L, "SECRETS to fix BROKEN CODE!");
+  }
+
+  // Same contract as findByNameContainsIgnoreCase(): a jumbled-up case still matches
+  @Test
+  void searchShouldIgnoreCase() {
+    assertThat(index.search("SpRinG bOOt 3")).containsExactly(1L);
+    assertThat(index.search("code")).containsExactly(2L, 3L);
+  }
+
+  // Every trigram of "your code" occurs somewhere, but only as a contiguous substring in one entry
+  @Test
+  void searchShouldVerifyCandidates() {
+    assertThat(index.search("your own code")).containsExactly(2L);
+    assertThat(index.search("code your")).isEmpty();
+  }
+
+  // Terms shorter than a trigram are answered by scanning the stored texts
+  @Test
+  void shortTermsShouldStillMatch() {
+    assertThat(index.search("!")).containsExactly(2L, 3L);
+    assertThat(index.search("3 ")).containsExactly(1L);
+  }
+
+  @Test
+  void removedAndReplacedDocumentsShouldNotMatch() {
+    index.remove(3L);
+    index.add(2L, "Something else entirely");
+    assertThat(index.search("code")).isEmpty();
+    assertThat(index.search("else")).containsExactly(2L);
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  // Re-adding a document frees its old ordinal; the freed slots are reclaimed instead of the arrays growing forever
+  @Test
+  void reAddedDocumentsShouldReuseFreedSlots() {
+    for (int round = 0; round < 1_000; round++) {
+      index.add(2L, "Don't do THIS to your own CODE! " + round);
+    }
+    index.remove(1L);
+    index.add(1L, "Need HELP with your SPRING BOOT 3 App?");
+    assertThat(index.capacity()).isEqualTo(16);
+    assertThat(index.search("code")).containsExactly(2L, 3L);
+    assertThat(index.search("own code! 999")).containsExactly(2L);
+    assertThat(index.search("spring")).containsExactly(1L);
+    assertThat(index.search("!")).containsExactly(2L, 3L);
+    assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  void nullTextShouldMatchNothing() {
+    index.add(4L, null);
+    assertThat(index.search("o")).containsExactly(1L, 2L, 3L);
+    assertThat(index.text(4L)).isNull();
+  }
+}
@@ -0,0 +1,64 @@
+package org.example.spring.data.jpa.queries;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs VideoService.createAll() on an in-memory H2 database with chunks of two videos, counting the transactions
+ * through the Hibernate statistics (hibernate.generate_statistics is on in application.properties).
+ */
+@SpringBootTest(properties = { //
+  "spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_ON_EXIT=FALSE", //
+  "app.batch.chunk-size=2"})
+class VideoBatchTest {
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  VideoRepository repository;
+
+  @Autowired
+  VideoPopularityRepository popularityRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  // Five videos in chunks of two: three transactions, each persisting the videos with their popularity rows
+  @Test
+  void createAllShouldPersistEveryVideoInOneTransactionPerChunk() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long videos = repository.count();
+    long popularity = popularityRepository.count();
+    long transactions = statistics.getSuccessfulTransactionCount();
+    List<NewVideo> newVideos = IntStream.range(0, 5) //
+      .mapToObj(i -> new NewVideo("Batched video " + i, "Chunk " + i / 2)) //
+      .toList();
+
+    BatchResult result = videoService.createAll(newVideos);
+
+    assertThat(statistics.getSuccessfulTransactionCount() - transactions).isEqualTo(3);
+    assertThat(result.created()).isEqualTo(5);
+    assertThat(result.elapsedMillis()).isNotNegative();
+    assertThat(repository.count()).isEqualTo(videos + 5);
+    assertThat(popularityRepository.count()).isEqualTo(popularity + 5);
+    assertThat(videoService.search(new UniversalSearch("batched video"))).hasSize(5);
+  }
+
+  @Test
+  void createAllShouldReportNothingForAnEmptyBatch() {
+    BatchResult result = videoService.createAll(List.of());
+
+    assertThat(result.created()).isZero();
+    assertThat(result.videosPerSecond()).isZero();
+  }
+}
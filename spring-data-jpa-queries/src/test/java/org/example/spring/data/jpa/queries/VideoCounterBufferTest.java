@@ -0,0 +1,156 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VideoCounterBufferTest {
+
+  @Mock
+  JdbcTemplate jdbcTemplate;
+
+  SimpleMeterRegistry meterRegistry;
+  VideoCounterBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    buffer = new VideoCounterBuffer(jdbcTemplate, meterRegistry);
+  }
+
+  // Many events for the same video collapse into one row of the batch
+  @SuppressWarnings("unchecked")
+  @Test
+  void flushShouldWriteOneRelativeUpdatePerVideo() {
+    buffer.addView(1L);
+    buffer.addView(1L);
+    buffer.addLike(1L);
+    buffer.addLike(2L);
+    assertThat(buffer.depth()).isEqualTo(4);
+
+    assertThat(buffer.flush()).isEqualTo(2);
+
+    ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(VideoCounterBuffer.FLUSH_SQL), batch.capture());
+    assertThat(batch.getValue()).containsExactlyInAnyOrder( //
+      new Object[] {2L, 1L, 1L}, //
+      new Object[] {0L, 1L, 2L});
+    assertThat(buffer.depth()).isZero();
+    assertThat(meterRegistry.get("video.counters.buffer.depth").gauge().value()).isZero();
+    assertThat(meterRegistry.get("video.counters.flush").timer().count()).isEqualTo(1);
+  }
+
+  // Nothing buffered means no round trip at all
+  @Test
+  void flushShouldSkipTheDatabaseWhenIdle() {
+    assertThat(buffer.flush()).isZero();
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  // A failed batch keeps its deltas for the next flush
+  @SuppressWarnings("unchecked")
+  @Test
+  void failedFlushShouldKeepTheDeltas() {
+    buffer.addView(1L);
+    given(jdbcTemplate.batchUpdate(eq(VideoCounterBuffer.FLUSH_SQL), any(List.class))) //
+      .willThrow(new DataAccessResourceFailureException("down")) //
+      .willReturn(new int[] {1});
+
+    assertThat(buffer.flush()).isZero();
+    assertThat(buffer.depth()).isEqualTo(1);
+    assertThat(buffer.pendingVideos()).isEqualTo(1);
+
+    assertThat(buffer.flush()).isEqualTo(1);
+    assertThat(buffer.depth()).isZero();
+  }
+
+  // An entry is removed by the first flush that finds it empty, and a later event for the video starts a fresh one
+  @SuppressWarnings("unchecked")
+  @Test
+  void flushShouldRemoveEntriesWithoutNewEvents() {
+    buffer.addView(1L);
+    buffer.addLike(2L);
+    assertThat(buffer.flush()).isEqualTo(2);
+    assertThat(buffer.pendingVideos()).isEqualTo(2);
+
+    buffer.addView(1L);
+    assertThat(buffer.flush()).isEqualTo(1);
+    assertThat(buffer.pendingVideos()).isEqualTo(1);
+
+    assertThat(buffer.flush()).isZero();
+    assertThat(buffer.pendingVideos()).isZero();
+
+    buffer.addView(1L);
+    assertThat(buffer.depth()).isEqualTo(1);
+    assertThat(buffer.flush()).isEqualTo(1);
+    ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate, times(3)).batchUpdate(eq(VideoCounterBuffer.FLUSH_SQL), batch.capture());
+    assertThat(batch.getValue()).containsExactly(new Object[] {1L, 0L, 1L});
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void discardShouldDropOnlyThatVideosDeltas() {
+    buffer.addView(1L);
+    buffer.addView(1L);
+    buffer.addLike(2L);
+
+    buffer.discard(1L);
+    buffer.discard(1L);
+    assertThat(buffer.depth()).isEqualTo(1);
+
+    assertThat(buffer.flush()).isEqualTo(1);
+    ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(VideoCounterBuffer.FLUSH_SQL), batch.capture());
+    assertThat(batch.getValue()).containsExactly(new Object[] {0L, 1L, 2L});
+    assertThat(buffer.depth()).isZero();
+    assertThat(buffer.pendingVideos()).isEqualTo(1);
+  }
+
+  // Flushes removing entries while events keep coming must neither lose nor double count any of them
+  @Test
+  void eventsRacingWithFlushesShouldAllBeWritten() {
+    AtomicLong written = new AtomicLong();
+    given(jdbcTemplate.batchUpdate(eq(VideoCounterBuffer.FLUSH_SQL), anyList())).willAnswer(invocation -> {
+      List<Object[]> batch = invocation.getArgument(1);
+      batch.forEach(row -> written.addAndGet((long) row[0] + (long) row[1]));
+      return new int[batch.size()];
+    });
+
+    CompletableFuture<?>[] writers = IntStream.range(0, 4) //
+      .mapToObj(writer -> CompletableFuture.runAsync(() -> {
+        for (int i = 0; i < 20_000; i++) {
+          if (i % 2 == 0) {
+            buffer.addView(i % 3);
+          } else {
+            buffer.addLike(i % 3);
+          }
+        }
+      })) //
+      .toArray(CompletableFuture<?>[]::new);
+    while (!CompletableFuture.allOf(writers).isDone()) {
+      buffer.flush();
+    }
+    buffer.flush();
+    buffer.flush();
+
+    assertThat(written).hasValue(80_000);
+    assertThat(buffer.depth()).isZero();
+    assertThat(buffer.pendingVideos()).isZero();
+  }
+}
@@ -0,0 +1,83 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VideoCsvImporterTest {
+
+  @Mock
+  VideoService videoService;
+
+  SimpleMeterRegistry meterRegistry;
+  VideoCsvImporter importer;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    importer = new VideoCsvImporter(videoService, new BatchConfig(2, 1_000), meterRegistry);
+  }
+
+  // Five valid rows in chunks of two: two full chunks and the rest, with the header and blank lines left out
+  @Test
+  void importShouldPersistInChunksAndSkipBlankLines() throws IOException {
+    List<List<NewVideo>> chunks = new ArrayList<>();
+    List<Double> inFlight = new ArrayList<>();
+    willAnswer(invocation -> {
+      chunks.add(invocation.getArgument(0));
+      inFlight.add(meterRegistry.get("video.import.in.flight").gauge().value());
+      return null;
+    }).given(videoService).createChunk(anyList());
+
+    ImportResult result = importer.importCsv(new StringReader("name,description\na,1\nb,2\n\nc,3\nd,4\ne,5\n\n\n"));
+
+    assertThat(chunks).extracting(chunk -> chunk.stream().map(NewVideo::name).toList()) //
+      .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e"));
+    assertThat(inFlight).containsExactly(2.0, 4.0, 5.0);
+    assertThat(result.imported()).isEqualTo(5);
+    assertThat(result.rejected()).isZero();
+    assertThat(rows("imported")).isEqualTo(5);
+    assertThat(rows("rejected")).isZero();
+    assertThat(meterRegistry.get("video.import.in.flight").gauge().value()).isZero();
+    assertThat(meterRegistry.get("video.import").timer().count()).isEqualTo(1);
+  }
+
+  // Wrong field counts, blank names and broken quoting are counted as rejected, and the rows around them still go in
+  @Test
+  void importShouldCountRejectedRowsAndCarryOn() throws IOException {
+    ImportResult result = importer.importCsv(new StringReader("a,1\nonly one field\n ,blank name\n\"bad\"x,2\nb,2\n"));
+
+    verify(videoService).createChunk(List.of(new NewVideo("a", "1"), new NewVideo("b", "2")));
+    assertThat(result.imported()).isEqualTo(2);
+    assertThat(result.rejected()).isEqualTo(3);
+    assertThat(rows("imported")).isEqualTo(2);
+    assertThat(rows("rejected")).isEqualTo(3);
+    assertThat(meterRegistry.get("video.import.in.flight").gauge().value()).isZero();
+  }
+
+  // Only the first record can be the header, even when it is malformed: a later name,description row is a video
+  @Test
+  void importShouldNotLookForTheHeaderPastAMalformedFirstRecord() throws IOException {
+    ImportResult result = importer.importCsv(new StringReader("\"bad\"x,1\nname,description\n"));
+
+    verify(videoService).createChunk(List.of(new NewVideo("name", "description")));
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.rejected()).isEqualTo(1);
+  }
+
+  private double rows(String result) {
+    return meterRegistry.get("video.import.rows").tag("result", result).counter().count();
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.spring.data.jpa.queries;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * GET /api/videos/export streams every video from VideoRepository.streamAllByOrderByIdAsc() as one JSON line.
+ * The videos the tests add are rolled back with their transaction and, as VideoService only indexes committed writes,
+ * never reach the in-memory structures either.
+ */
+@SpringBootTest
+@Transactional
+class VideoExportTest {
+
+  @Autowired
+  ApiController apiController;
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  VideoRepository repository;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Test
+  void forEachVideoShouldStreamEveryVideoInIdOrder() {
+    videoService.create(new NewVideo("Streamed", "from the cursor"));
+    List<Long> streamed = new ArrayList<>();
+
+    long count = videoService.forEachVideo(video -> streamed.add(video.getId()));
+
+    assertThat(count).isEqualTo(streamed.size());
+    assertThat(streamed) //
+      .containsExactlyElementsOf(repository.findAll().stream().map(VideoEntity::getId).sorted().toList());
+  }
+
+  // Every line, the last one included, is one complete JSON object followed by a newline
+  @Test
+  void exportShouldWriteOneTerminatedLinePerVideo() throws Exception {
+    VideoEntity created = videoService.create(new NewVideo("Exported", "as the last line"));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    apiController.export(response);
+
+    String body = response.getContentAsString();
+    assertThat(response.getContentType()).isEqualTo(ApiController.NDJSON);
+    assertThat(body).endsWith("}\n");
+    String[] lines = body.split("\n");
+    assertThat(lines).hasSize((int) repository.count());
+    JsonNode last = objectMapper.readTree(lines[lines.length - 1]);
+    assertThat(last.get("id").asLong()).isEqualTo(created.getId());
+    assertThat(last.get("name").asText()).isEqualTo("Exported");
+    assertThat(last.get("description").asText()).isEqualTo("as the last line");
+  }
+}
@@ -0,0 +1,89 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * GET /api/videos pages through VideoService.getVideos(after, limit). Every test runs in a transaction that is rolled
+ * back, so the videos it adds never reach the other tests: neither the database, nor the search engine, name trie and
+ * search cache, which VideoService only updates once a write commits.
+ */
+@SpringBootTest
+@Transactional
+class VideoKeysetPaginationTest {
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  VideoRepository repository;
+
+  List<Long> ids;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < 5; i++) {
+      videoService.create(new NewVideo("Paged video " + i, "One of several"));
+    }
+    ids = repository.findAll().stream().map(VideoEntity::getId).sorted().toList();
+  }
+
+  @Test
+  void firstPageShouldStartAtTheLowestIdAndPointAtItsLastVideo() {
+    VideoPage page = videoService.getVideos(null, 2);
+
+    assertThat(page.videos()).extracting(VideoEntity::getId).containsExactlyElementsOf(ids.subList(0, 2));
+    assertThat(page.next()).isEqualTo(ids.get(1));
+  }
+
+  // The cursor is the last id of the previous page, and the next page starts right after it
+  @Test
+  void cursorShouldSeekPastTheLastIdSeen() {
+    VideoPage page = videoService.getVideos(ids.get(1), 2);
+
+    assertThat(page.videos()).extracting(VideoEntity::getId).containsExactlyElementsOf(ids.subList(2, 4));
+    assertThat(page.next()).isEqualTo(ids.get(3));
+  }
+
+  // A page that exactly holds what is left has no cursor, and seeking past the last id finds nothing
+  @Test
+  void lastPageShouldHaveNoCursorAndTheTailShouldBeEmpty() {
+    VideoPage last = videoService.getVideos(ids.get(ids.size() - 3), 2);
+    assertThat(last.videos()).extracting(VideoEntity::getId) //
+      .containsExactlyElementsOf(ids.subList(ids.size() - 2, ids.size()));
+    assertThat(last.next()).isNull();
+
+    VideoPage tail = videoService.getVideos(ids.get(ids.size() - 1), 2);
+    assertThat(tail.videos()).isEmpty();
+    assertThat(tail.next()).isNull();
+    assertThat(repository.findByIdGreaterThanOrderByIdAsc(ids.get(ids.size() - 1), PageRequest.of(0, 2))).isEmpty();
+  }
+
+  @Test
+  void followingTheCursorsShouldVisitEveryVideoOnce() {
+    List<Long> visited = new ArrayList<>();
+    Long after = null;
+    do {
+      VideoPage page = videoService.getVideos(after, 3);
+      page.videos().forEach(video -> visited.add(video.getId()));
+      after = page.next();
+    } while (after != null);
+
+    assertThat(visited).containsExactlyElementsOf(ids);
+  }
+
+  @Test
+  void uncommittedVideosShouldStayOutOfTheInMemoryStructures() {
+    assertThat(videoService.suggest("Paged video", VideoService.MAX_SUGGESTIONS)).isEmpty();
+    assertThat(videoService.searchSummaries(new VideoSearch("Paged video", null))).isEmpty();
+  }
+}
@@ -0,0 +1,79 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VideoNameTrieTest {
+
+  SimpleMeterRegistry meterRegistry;
+  VideoNameTrie trie;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    trie = new VideoNameTrie(meterRegistry);
+    trie.add("SECRETS to fix BROKEN CODE!");
+    trie.add("Spring Boot 3 Deep Dive");
+    trie.add("Spring Boot 3 Intro");
+    trie.add("Spring Data");
+  }
+
+  // Lookups ignore case and return the names as they were added, alphabetically
+  @Test
+  void suggestShouldMatchPrefixesIgnoringCase() {
+    assertThat(trie.suggest("s", 10)).containsExactly( //
+      "SECRETS to fix BROKEN CODE!", "Spring Boot 3 Deep Dive", "Spring Boot 3 Intro", "Spring Data");
+    assertThat(trie.suggest("SPRING B", 10)).containsExactly("Spring Boot 3 Deep Dive", "Spring Boot 3 Intro");
+    assertThat(trie.suggest("spring boot 3 i", 10)).containsExactly("Spring Boot 3 Intro");
+    assertThat(trie.suggest("spring x", 10)).isEmpty();
+    assertThat(trie.suggest("spring data and more", 10)).isEmpty();
+  }
+
+  @Test
+  void suggestShouldStopAtTheLimit() {
+    assertThat(trie.suggest("spring", 2)).containsExactly("Spring Boot 3 Deep Dive", "Spring Boot 3 Intro");
+  }
+
+  // A name shared by two videos stays suggested until both are removed, and removal compacts the tree again
+  @Test
+  void removeShouldCountDuplicatesAndCompact() {
+    long nodes = trie.nodeCount();
+    trie.add("spring data");
+    trie.remove("Spring Data");
+    assertThat(trie.suggest("spring d", 10)).containsExactly("Spring Data");
+
+    trie.add("Spring Boot 3 In Depth");
+    trie.remove("Spring Boot 3 In Depth");
+    assertThat(trie.nodeCount()).isEqualTo(nodes);
+
+    trie.remove("spring data");
+    trie.remove("Not there at all");
+    assertThat(trie.suggest("spring", 10)).containsExactly("Spring Boot 3 Deep Dive", "Spring Boot 3 Intro");
+  }
+
+  // The footprint is kept up to date by every change: undoing them restores it exactly
+  @Test
+  void footprintShouldFollowAddsAndRemoves() {
+    long bytes = trie.estimatedBytes();
+    trie.add("Spring Boot 3 In Depth");
+    trie.add("Spring Batch");
+    assertThat(trie.estimatedBytes()).isGreaterThan(bytes);
+
+    trie.remove("Spring Batch");
+    trie.remove("Spring Boot 3 In Depth");
+    assertThat(trie.estimatedBytes()).isEqualTo(bytes);
+
+    trie.clear();
+    assertThat(trie.estimatedBytes()).isEqualTo(new VideoNameTrie(new SimpleMeterRegistry()).estimatedBytes());
+    assertThat(trie.nodeCount()).isOne();
+  }
+
+  @Test
+  void footprintShouldBeReported() {
+    assertThat(meterRegistry.get("video.suggest.trie.bytes").gauge().value()).isPositive();
+    assertThat(meterRegistry.get("video.suggest.trie.nodes").gauge().value()).isEqualTo(trie.nodeCount());
+  }
+}
@@ -0,0 +1,63 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The video_popularity projection: its backfill and findVideosThatArentPopular(), in rolled-back transactions. Their
+ * videos are not indexed either, since VideoService only updates its in-memory structures after a commit.
+ */
+@SpringBootTest
+@Transactional
+class VideoPopularityTest {
+
+  @Autowired
+  VideoService videoService;
+
+  @Autowired
+  VideoRepository repository;
+
+  @Autowired
+  VideoPopularityRepository popularityRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  // A video saved behind VideoService's back has no popularity row until the backfill gives it a zeroed one, once
+  @Test
+  void backfillShouldAddZeroedRowsOnlyForVideosWithoutOne() {
+    VideoEntity orphan = repository.saveAndFlush(new VideoEntity("No popularity row", "saved directly"));
+    assertThat(popularityRepository.existsById(orphan.getId())).isFalse();
+
+    assertThat(popularityRepository.backfill()).isEqualTo(1);
+    assertThat(popularityRepository.backfill()).isZero();
+
+    VideoPopularity popularity = popularityRepository.findById(orphan.getId()).orElseThrow();
+    assertThat(popularity.getViews()).isZero();
+    assertThat(popularity.getLikes()).isZero();
+  }
+
+  // Unpopular means too few views or too few likes
+  @Test
+  void unpopularVideosShouldLackViewsOrLikes() {
+    VideoEntity popular = videoService.create(new NewVideo("Popular", "many views and likes"));
+    VideoEntity unliked = videoService.create(new NewVideo("Unliked", "many views, few likes"));
+    VideoEntity unseen = videoService.create(new NewVideo("Unseen", "nothing at all"));
+    setCounters(popular, 100, 100);
+    setCounters(unliked, 100, 1);
+
+    assertThat(videoService.findVideosThatArentPopular(10L, 10L)) //
+      .extracting(VideoEntity::getId) //
+      .contains(unliked.getId(), unseen.getId()) //
+      .doesNotContain(popular.getId());
+  }
+
+  private void setCounters(VideoEntity video, long views, long likes) {
+    jdbcTemplate.update("update video_popularity set views = ?, likes = ? where video_id = ?", views, likes, video.getId());
+  }
+}
@@ -0,0 +1,66 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VideoSearchCacheTest {
+
+  SimpleMeterRegistry meterRegistry;
+  VideoSearchCache cache;
+  AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new VideoSearchCache(new SearchCacheConfig(100, Duration.ofMinutes(10)), meterRegistry);
+    loads = new AtomicInteger();
+  }
+
+  // Terms differing only in case share one entry
+  @Test
+  void repeatedTermsShouldBeServedFromTheCache() {
+    cache.get(new UniversalSearch("Code"), VideoSearchCache.UNLIMITED, this::load);
+    cache.get(new UniversalSearch("CODE"), VideoSearchCache.UNLIMITED, this::load);
+
+    assertThat(loads).hasValue(1);
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "video.search").tag("result", "hit").functionCounter().count())
+      .isEqualTo(1);
+  }
+
+  // Only the terms the video contains, and the blank term, are dropped
+  @Test
+  void invalidateShouldDropOnlyTheTermsTheVideoCanChange() {
+    cache.get(new UniversalSearch("code"), VideoSearchCache.UNLIMITED, this::load);
+    cache.get(new UniversalSearch("spring"), VideoSearchCache.UNLIMITED, this::load);
+    cache.get(new UniversalSearch(""), 10, this::load);
+
+    cache.invalidate(new VideoEntity("Clean CODE", "refactoring"));
+
+    assertThat(cache.size()).isEqualTo(1);
+    cache.get(new UniversalSearch("spring"), VideoSearchCache.UNLIMITED, this::load);
+    assertThat(loads).hasValue(3);
+  }
+
+  // A write during the load means the loaded result may be stale, so it is not kept
+  @Test
+  void loadRacingWithAWriteShouldNotBeKept() {
+    List<VideoSummary> result = cache.get(new UniversalSearch("java"), VideoSearchCache.UNLIMITED, () -> {
+      cache.invalidate(new VideoEntity("Java", "streams"));
+      return load();
+    });
+
+    assertThat(result).hasSize(1);
+    assertThat(cache.size()).isZero();
+  }
+
+  private List<VideoSummary> load() {
+    return List.of(new VideoSummary((long) loads.incrementAndGet(), "name", "description"));
+  }
+}
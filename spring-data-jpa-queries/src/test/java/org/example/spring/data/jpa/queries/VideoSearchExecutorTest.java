@@ -0,0 +1,128 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VideoSearchExecutorTest {
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  SimpleMeterRegistry meterRegistry;
+  VideoSearchExecutor searchExecutor;
+  CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    searchExecutor = new VideoSearchExecutor(transactionManager, new AsyncSearchConfig(1, 1, Duration.ofMillis(200)),
+      meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    searchExecutor.shutdown();
+  }
+
+  // With the only thread busy and the queue full, the next search is turned away instead of waiting
+  @Test
+  void submitShouldRejectWhenThePoolIsSaturated() {
+    searchExecutor.submit(this::blocked);
+    searchExecutor.submit(this::blocked);
+
+    assertThatThrownBy(() -> searchExecutor.submit(() -> "too many").get()) //
+      .isInstanceOf(ExecutionException.class) //
+      .hasCauseInstanceOf(SearchUnavailableException.class);
+    assertThat(meterRegistry.get("video.search.async.failures").tag("reason", "rejected").counter().count()) //
+      .isEqualTo(1);
+  }
+
+  // Both the future deadline and a statement cancelled by the driver end up as a timeout
+  @Test
+  void submitShouldGiveUpAtTheTimeout() {
+    CompletableFuture<String> slow = searchExecutor.submit(this::blocked);
+    assertThatThrownBy(slow::get).hasCauseInstanceOf(SearchUnavailableException.class);
+
+    release.countDown();
+    CompletableFuture<String> cancelled = searchExecutor.submit(() -> {
+      throw new QueryTimeoutException("statement cancelled");
+    });
+    assertThatThrownBy(cancelled::get).hasCauseInstanceOf(SearchUnavailableException.class);
+    assertThat(meterRegistry.get("video.search.async.failures").tag("reason", "timeout").counter().count()) //
+      .isEqualTo(2);
+  }
+
+  // A search that timed out in the queue leaves it at once and never runs, so it cannot take a connection afterwards
+  @Test
+  void searchesTimedOutInTheQueueShouldNotRun() {
+    AtomicBoolean ran = new AtomicBoolean();
+    searchExecutor.submit(this::blocked);
+    CompletableFuture<Boolean> queued = searchExecutor.submit(() -> ran.getAndSet(true));
+    assertThatThrownBy(queued::get).hasCauseInstanceOf(SearchUnavailableException.class);
+
+    CompletableFuture<String> queuedAgain = searchExecutor.submit(() -> "queued again");
+    assertThat(queuedAgain).isNotCompletedExceptionally();
+    release.countDown();
+    assertThat(queuedAgain).succeedsWithin(Duration.ofSeconds(1)).isEqualTo("queued again");
+    assertThat(ran).isFalse();
+  }
+
+  // The transaction timeout counts from the submission, not from when a thread picked the search up
+  @Test
+  void searchesShouldRunWithTheTimeLeftAsTransactionTimeout() throws Exception {
+    searchExecutor.shutdown();
+    searchExecutor = new VideoSearchExecutor(transactionManager, new AsyncSearchConfig(1, 1, Duration.ofMillis(2_500)),
+      meterRegistry);
+    CompletableFuture<String> first = searchExecutor.submit(() -> pause(Duration.ofMillis(1_200)));
+    assertThat(searchExecutor.submit(() -> "found").get()).isEqualTo("found");
+    assertThat(first.get()).isEqualTo("paused");
+
+    ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+    then(transactionManager).should(times(2)).getTransaction(definitions.capture());
+    assertThat(definitions.getAllValues()).extracting(TransactionDefinition::getTimeout).containsExactly(3, 2);
+    assertThat(definitions.getAllValues()).allMatch(TransactionDefinition::isReadOnly);
+  }
+
+  @Test
+  void submitShouldReturnTheResult() throws Exception {
+    assertThat(searchExecutor.submit(() -> "found").get()).isEqualTo("found");
+  }
+
+  private String blocked() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "late";
+  }
+
+  private String pause(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "paused";
+  }
+}
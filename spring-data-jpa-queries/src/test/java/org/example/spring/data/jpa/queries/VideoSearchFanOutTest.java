@@ -0,0 +1,102 @@
+package org.example.spring.data.jpa.queries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VideoSearchFanOutTest {
+
+  @Mock
+  VideoRepository repository;
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  SimpleMeterRegistry meterRegistry;
+  VideoSearchFanOut fanOut;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    fanOut = new VideoSearchFanOut(repository, transactionManager, new FanOutConfig(2, Duration.ofMillis(200)),
+      meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    fanOut.shutdown();
+  }
+
+  // A video matching both fields is returned once, and the union comes back in id order
+  @Test
+  void searchShouldMergeBothLookupsById() {
+    given(repository.findByNameContainsIgnoreCase("code")).willReturn(List.of(video(3L), video(2L)));
+    given(repository.findByDescriptionContainsIgnoreCase("your")).willReturn(List.of(video(2L), video(1L)));
+
+    SearchResult result = fanOut.search(new VideoSearch("code", "your"));
+
+    assertThat(result.videos()).extracting(VideoEntity::getId).containsExactly(1L, 2L, 3L);
+    assertThat(result.partial()).isFalse();
+  }
+
+  // The slow lookup is abandoned at the deadline and the answer says so
+  @Test
+  void searchShouldReturnPartialResultsAfterTheDeadline() {
+    given(repository.findByNameContainsIgnoreCase("code")).willReturn(List.of(video(3L)));
+    given(repository.findByDescriptionContainsIgnoreCase("your")).willAnswer(invocation -> {
+      Thread.sleep(5_000);
+      return List.of(video(1L));
+    });
+
+    SearchResult result = fanOut.search(new VideoSearch("code", "your"));
+
+    assertThat(result.videos()).extracting(VideoEntity::getId).containsExactly(3L);
+    assertThat(result.partial()).isTrue();
+    assertThat(meterRegistry.get("video.search.fan-out.partial").counter().count()).isEqualTo(1);
+  }
+
+  // The deadline becomes the transaction timeout, which Hibernate hands to the driver as the JDBC query timeout
+  @Test
+  void lookupsShouldRunWithTheTimeLeftAsTransactionTimeout() {
+    given(repository.findByNameContainsIgnoreCase("code")).willReturn(List.of(video(3L)));
+
+    fanOut.search(new VideoSearch("code", null));
+
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager).getTransaction(definition.capture());
+    assertThat(definition.getValue().isReadOnly()).isTrue();
+    assertThat(definition.getValue().getTimeout()).isEqualTo(1);
+  }
+
+  // A pool that turns the lookups away answers at once, with an empty, partial result, instead of running them inline
+  @Test
+  void rejectedLookupsShouldGiveAPartialResult() {
+    fanOut.shutdown();
+
+    SearchResult result = fanOut.search(new VideoSearch("code", "your"));
+
+    assertThat(result.videos()).isEmpty();
+    assertThat(result.partial()).isTrue();
+    verifyNoInteractions(repository);
+  }
+
+  private static VideoEntity video(Long id) {
+    VideoEntity video = new VideoEntity("name " + id, "description " + id);
+    video.setId(id);
+    return video;
+  }
+}
@@ -0,0 +1,54 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VideoSearchIndexTest {
+
+  VideoSearchIndex index;
+
+  // Indexes the seed data of VideoService with the ids the database would hand out
+  @BeforeEach
+  void setUp() {
+    index = new VideoSearchIndex();
+    index.rebuild(List.of( //
+      video(1L, "Need HELP with your SPRING BOOT 3 App?",
+        "SPRING BOOT 3 will only speed things up and make it super SIMPLE to serve templates and raw data."),
+      video(2L, "Don't do THIS to your own CODE!",
+        "As a pro developer, never ever EVER do this to your code. Because you'll ultimately be doing it to YOURSELF!"),
+      video(3L, "SECRETS to fix BROKEN CODE!",
+        "Discover ways to not only debug your code, but to regain your confidence and get back in the game as a software developer.")));
+  }
+
+  // Same results as findByNameContainsOrDescriptionContainsAllIgnoreCase("CoDe", "YOUR CODE")
+  @Test
+  void findByNameOrDescriptionShouldFindTheUnion() {
+    assertThat(index.findByNameOrDescription("CoDe", "YOUR CODE")).containsExactly(2L, 3L);
+    assertThat(index.findByNameOrDescription("spring", "developer")).containsExactly(1L, 2L, 3L);
+  }
+
+  // Name hits outweigh description hits; equal scores keep the lower id first
+  @Test
+  void findTopShouldRankByScoreAndKeepOnlyTheLimit() {
+    assertThat(index.findTop("code", "code", 10)).containsExactly(2L, 3L);
+    assertThat(index.findTop("spring", "developer", 10)).containsExactly(1L, 2L, 3L);
+    assertThat(index.findTop(null, "your", 1)).containsExactly(2L);
+    assertThat(index.findTop("nothing like it", null, 2)).isEmpty();
+  }
+
+  @Test
+  void occurrencesShouldCountNonOverlappingHits() {
+    assertThat(VideoSearchIndex.occurrences("AAAA", "AA")).isEqualTo(2);
+    assertThat(VideoSearchIndex.occurrences(null, "AA")).isZero();
+  }
+
+  private static VideoEntity video(Long id, String name, String description) {
+    VideoEntity video = new VideoEntity(name, description);
+    video.setId(id);
+    return video;
+  }
+}
@@ -0,0 +1,68 @@
+package org.example.spring.data.jpa.queries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VideoSearchSnapshotTest {
+
+  VideoSearchSnapshot snapshot;
+
+  // Same seed data as VideoSearchIndexTest, so both engines must give the same answers
+  @BeforeEach
+  void setUp() {
+    snapshot = new VideoSearchSnapshot();
+    snapshot.addAll(List.of( //
+      video(1L, "Need HELP with your SPRING BOOT 3 App?",
+        "SPRING BOOT 3 will only speed things up and make it super SIMPLE to serve templates and raw data."),
+      video(2L, "Don't do THIS to your own CODE!",
+        "As a pro developer, never ever EVER do this to your code. Because you'll ultimately be doing it to YOURSELF!"),
+      video(3L, "SECRETS to fix BROKEN CODE!",
+        "Discover ways to not only debug your code, but to regain your confidence and get back in the game as a software developer.")));
+  }
+
+  @Test
+  void findShouldMatchLikeTheIndex() {
+    assertThat(snapshot.findByNameOrDescription("CoDe", "YOUR CODE")).containsExactly(2L, 3L);
+    assertThat(snapshot.findByNameOrDescription("spring", "developer")).containsExactly(1L, 2L, 3L);
+    assertThat(snapshot.findByName("code")).containsExactly(2L, 3L);
+    assertThat(snapshot.findByDescription("")).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  void findTopShouldRankLikeTheIndex() {
+    assertThat(snapshot.findTop("code", "code", 10)).containsExactly(2L, 3L);
+    assertThat(snapshot.findTop("spring", "developer", 10)).containsExactly(1L, 2L, 3L);
+    assertThat(snapshot.findTop(null, "your", 1)).containsExactly(2L);
+    assertThat(snapshot.findTop("nothing like it", null, 2)).isEmpty();
+  }
+
+  // A reader holding on to older results is unaffected; new snapshots see appends, re-adds and deletes
+  @Test
+  void writesShouldPublishNewSnapshots() {
+    snapshot.add(video(4L, "More CODE", null));
+    assertThat(snapshot.findByName("code")).containsExactly(2L, 3L, 4L);
+    assertThat(snapshot.findByDescription("")).containsExactly(1L, 2L, 3L);
+
+    snapshot.add(video(2L, "Renamed", "nothing here"));
+    assertThat(snapshot.findByName("code")).containsExactly(3L, 4L);
+    assertThat(snapshot.findByName("renamed")).containsExactly(2L);
+
+    snapshot.remove(3L);
+    assertThat(snapshot.findByName("code")).containsExactly(4L);
+    assertThat(snapshot.contains(3L)).isFalse();
+    assertThat(snapshot.size()).isEqualTo(3);
+
+    snapshot.add(video(5L, "Fresh CODE", "appended after a compacting copy"));
+    assertThat(snapshot.findByName("code")).containsExactly(4L, 5L);
+  }
+
+  private static VideoEntity video(Long id, String name, String description) {
+    VideoEntity video = new VideoEntity(name, description);
+    video.setId(id);
+    return video;
+  }
+}